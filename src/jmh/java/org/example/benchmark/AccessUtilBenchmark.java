@@ -0,0 +1,78 @@
+package org.example.benchmark;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.example.testing.TestServer;
+import org.example.util.AccessUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link AccessUtil#hasPermission(CommandSender, String)} for players and the console, with and without the
+ * permission cache.
+ * <p>
+ * The stand-in players are dynamic proxies, so the uncached variants include the cost of a proxied
+ * {@code hasPermission} call, which is cheaper than the real permission lookup of a server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccessUtilBenchmark {
+
+    private static final String PERMISSION = "example.command.use";
+
+    @Param({"false", "true"})
+    public boolean cached;
+
+    private Player allowed;
+    private Player denied;
+    private CommandSender console;
+
+    @Setup
+    public void setup() throws Exception {
+        File dataFolder = Files.createTempDirectory("access-benchmark").toFile();
+        allowed = TestServer.player("Allowed", false, PERMISSION);
+        denied = TestServer.player("Denied", false);
+        console = TestServer.console();
+        if (cached) {
+            AccessUtil.enablePermissionCache(TestServer.plugin(dataFolder), 10000, TimeUnit.MINUTES.toMillis(10));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        AccessUtil.disablePermissionCache();
+    }
+
+    @Benchmark
+    public boolean playerAllowed() {
+        return AccessUtil.hasPermission(allowed, PERMISSION);
+    }
+
+    @Benchmark
+    public boolean playerDenied() {
+        return AccessUtil.hasPermission(denied, PERMISSION);
+    }
+
+    @Benchmark
+    public boolean console() {
+        return AccessUtil.hasPermission(console, PERMISSION);
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.benchmark;
+
+import org.example.testing.TestServer;
+import org.example.util.ColorUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ColorUtil#translate(String)} and {@link ColorUtil#strip(String)} on typical chat messages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColorUtilBenchmark {
+
+    @Param({"short", "long", "codeHeavy", "codeFree"})
+    public String input;
+
+    private String text;
+
+    @Setup
+    public void setup() {
+        TestServer.install();
+        switch (input) {
+            case "short":
+                text = "&aWelcome!";
+                break;
+            case "long":
+                text = "&7[&6Shop&7] &fYou bought &e64 Cobblestone &ffor &a$12.50&f. Your balance is now &a$1,337.00&f. "
+                        + "Thank you for shopping with us, come back soon!";
+                break;
+            case "codeHeavy":
+                text = "&a&lR&b&lA&c&lI&d&lN&e&lB&f&lO&1&lW &2&l&n&oC&3&l&n&oO&4&l&n&oL&5&l&n&oO&6&l&n&oR&7&l&n&oS";
+                break;
+            default:
+                text = "There are no color codes in this message, so it should be returned as it is without any copying.";
+                break;
+        }
+    }
+
+    @Benchmark
+    public String translate() {
+        return ColorUtil.translate(text);
+    }
+
+    @Benchmark
+    public String strip() {
+        return ColorUtil.strip(text);
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.benchmark;
+
+import org.example.testing.TestServer;
+import org.example.util.ConfigUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ConfigUtil#load()} and {@link ConfigUtil#saveConfig()} for a small and a large configuration file,
+ * and {@link ConfigUtil#load()} with the parse cache enabled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigUtilBenchmark {
+
+    @Param({"20", "5000"})
+    public int entries;
+
+    private ConfigUtil config;
+    private ConfigUtil cachedConfig;
+
+    @Setup
+    public void setup() throws Exception {
+        File folder = Files.createTempDirectory("config-benchmark").toFile();
+        config = new ConfigUtil(TestServer.plugin(folder), "config.yml");
+        for (int i = 0; i < entries; i++) {
+            String section = "section" + (i % 50) + ".entry" + i;
+            config.setProperty(section + ".name", "Entry number " + i);
+            config.setProperty(section + ".amount", i);
+            config.setProperty(section + ".enabled", i % 2 == 0);
+            config.setProperty(section + ".tags", Arrays.asList("alpha", "beta", "gamma"));
+        }
+        config.saveConfig();
+
+        File cachedFolder = Files.createTempDirectory("config-benchmark").toFile();
+        Files.copy(new File(folder, "config.yml").toPath(), new File(cachedFolder, "config.yml").toPath());
+        cachedConfig = new ConfigUtil(TestServer.plugin(cachedFolder), "config.yml");
+        cachedConfig.setParseCacheEnabled(true);
+        cachedConfig.load();
+    }
+
+    @Benchmark
+    public ConfigUtil load() {
+        config.load();
+        return config;
+    }
+
+    @Benchmark
+    public ConfigUtil loadCached() {
+        cachedConfig.load();
+        return cachedConfig;
+    }
+
+    @Benchmark
+    public ConfigUtil save() {
+        config.saveConfig();
+        return config;
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.benchmark;
+
+import org.example.testing.TestServer;
+import org.example.util.LoggerUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of {@link LoggerUtil#writeToLog(String, boolean)} to a log file in a temporary directory,
+ * with and without timestamps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggerUtilBenchmark {
+
+    @Param({"false", "true"})
+    public boolean logDateTime;
+
+    @Setup
+    public void setup() throws Exception {
+        new LoggerUtil(TestServer.plugin(Files.createTempDirectory("logger-benchmark").toFile()), "benchmark.log").initializeLog();
+    }
+
+    @TearDown
+    public void tearDown() {
+        LoggerUtil.closeLog();
+    }
+
+    @Benchmark
+    public void writeToLog() {
+        LoggerUtil.writeToLog("Player Notch bought 64 Cobblestone for $12.50 at the spawn shop.", logDateTime);
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the parsing of a GitHub release response by {@link UpdateUtil}, through {@link ReleaseParser} and
+ * {@link SemanticVersion}.
+ * <p>
+ * Lives in the {@code org.example.util} package because both classes are package-private. The response puts the
+ * {@code tag_name} field after a long release body and asset list, as the GitHub API does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReleaseParserBenchmark {
+
+    private String response;
+
+    @Setup
+    public void setup() {
+        StringBuilder assets = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            if (i > 0) {
+                assets.append(',');
+            }
+            assets.append("{\"url\":\"https://api.github.com/repos/example/plugin/releases/assets/").append(i)
+                    .append("\",\"name\":\"Plugin-").append(i).append(".jar\",\"size\":123456,\"download_count\":42,")
+                    .append("\"uploader\":{\"login\":\"example\",\"id\":1,\"site_admin\":false}}");
+        }
+
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            body.append("- Fixed issue #").append(i).append(" with \\\"quoted\\\" text\\n");
+        }
+
+        response = "{\"url\":\"https://api.github.com/repos/example/plugin/releases/1\",\"id\":1,"
+                + "\"author\":{\"login\":\"example\",\"id\":1},\"node_id\":\"RE_kwDOABCDEF\","
+                + "\"body\":\"" + body + "\",\"assets\":[" + assets + "],"
+                + "\"tag_name\":\"v1.12.3\",\"name\":\"Release 1.12.3\",\"draft\":false,\"prerelease\":false}";
+    }
+
+    @Benchmark
+    public String readTagName() throws IOException {
+        return ReleaseParser.readTagName(new StringReader(response));
+    }
+
+    @Benchmark
+    public int compareVersions() {
+        return SemanticVersion.compare("v1.12.3-rc.1", "v1.12.3");
+    }
+}
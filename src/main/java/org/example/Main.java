@@ -2,6 +2,7 @@ package org.example;
 
 import org.bukkit.plugin.PluginDescriptionFile;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.example.util.ConfigUtil;
 
 import static org.example.util.LoggerUtil.logInfo;
 
@@ -15,13 +16,14 @@ public class Main extends JavaPlugin {
 
         // Startup logic (e.g., initialize data, register listeners)
 
-        logInfo(String.format("[%s] v%s Enabled.", pdf.getName(), pdf.getVersion()));
+        logInfo("[%s] v%s Enabled.", pdf.getName(), pdf.getVersion());
     }
 
     @Override
     public void onDisable() {
         // Cleanup logic (e.g., save data, unregister listeners)
+        ConfigUtil.flushAllPendingSaves();
 
-        logInfo(String.format("[%s] v%s Disabled.", pdf.getName(), pdf.getName()));
+        logInfo("[%s] v%s Disabled.", pdf.getName(), pdf.getVersion());
     }
 }
\ No newline at end of file
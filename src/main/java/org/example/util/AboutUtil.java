@@ -5,11 +5,13 @@ import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.util.List;
-import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
-import static org.bukkit.Bukkit.getServer;
+import static org.example.util.ColorUtil.strip;
 import static org.example.util.ColorUtil.translate;
+import static org.example.util.LoggerUtil.logInfo;
+import static org.example.util.LoggerUtil.logWarning;
+import static org.example.util.MessageUtil.message;
 
 /**
  * Utility class for displaying plugin information to the command sender.
@@ -20,8 +22,6 @@ import static org.example.util.ColorUtil.translate;
  */
 public class AboutUtil {
 
-    private static final Logger logger = getServer().getLogger();
-
     /**
      * Displays detailed information about the specified plugin to the command sender.
      * <p>
@@ -97,13 +97,13 @@ public class AboutUtil {
      */
     private static void sendPlayerInfo(Player player, String name, String version, String description, String website, String authors, boolean experimental) {
         if (experimental) {
-            player.sendMessage(translate("&cRunning an experimental version."));
-            player.sendMessage(translate("&cMay contain bugs or other types of issues."));
+            player.sendMessage(message("about.experimental"));
+            player.sendMessage(message("about.experimental-issues"));
         }
-        player.sendMessage(translate(String.format("&e%s &7version &e%s", name, version)));
-        outputMessage(player, "&7", description);
-        outputMessage(player, "&7Website: &e", website);
-        outputMessage(player, "&7Author(s): &e", authors);
+        player.sendMessage(message("about.version", name, version));
+        outputMessage(player, "about.description", description);
+        outputMessage(player, "about.website", website);
+        outputMessage(player, "about.authors", authors);
     }
 
     /**
@@ -121,27 +121,27 @@ public class AboutUtil {
      */
     private static void sendConsoleInfo(String name, String version, String description, String website, String authors, boolean experimental) {
         if (experimental) {
-            logger.warning("Running an experimental version.");
-            logger.warning("May contain bugs or other types of issues.");
+            logWarning("Running an experimental version.");
+            logWarning("May contain bugs or other types of issues.");
         }
-        logger.info(String.format("%s version %s", name, version));
+        logInfo("%s version %s", name, version);
         outputMessage(description);
         outputMessage("Website: ", website);
-        outputMessage("Author(s): ", authors != null ? authors.replace("&e", "").replace("&7", "") : null);
+        outputMessage("Author(s): ", authors != null ? strip(authors) : null);
     }
 
     /**
      * Sends a message to a player if the message is not {@code null}.
      * <p>
-     * The message is prefixed with a specified string before being sent.
+     * The message is color-translated and inserted into the catalog message with the specified key before being sent.
      *
      * @param player  the player to receive the message
-     * @param prefix  the prefix to add to the message
+     * @param key     the key of the catalog message that the message is inserted into
      * @param message the message to send, or {@code null} if no message should be sent
      */
-    private static void outputMessage(Player player, String prefix, String message) {
+    private static void outputMessage(Player player, String key, String message) {
         if (message != null) {
-            player.sendMessage(translate(prefix + message));
+            player.sendMessage(message(key, translate(message)));
         }
     }
 
@@ -152,7 +152,7 @@ public class AboutUtil {
      */
     private static void outputMessage(String message) {
         if (message != null) {
-            logger.info(message);
+            logInfo(message);
         }
     }
 
@@ -164,7 +164,7 @@ public class AboutUtil {
      */
     private static void outputMessage(String prefix, String message) {
         if (message != null) {
-            logger.info(prefix + message);
+            logInfo("%s%s", prefix, message);
         }
     }
 }
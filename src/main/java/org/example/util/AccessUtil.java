@@ -2,27 +2,121 @@ package org.example.util;
 
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
 
-import java.util.logging.Logger;
+import java.util.BitSet;
 
-import static org.bukkit.Bukkit.getServer;
-import static org.example.util.ColorUtil.translate;
+import static org.example.util.LoggerUtil.logInfo;
 
 /**
  * Utility class for handling access control and command restrictions.
  * <p>
  * This class provides methods to check permissions and enforce command usage restrictions based on the
  * sender's type (player or console).
+ * <p>
+ * Permission decisions can optionally be cached per player and permission node with
+ * {@link #enablePermissionCache(JavaPlugin, int, long)}, which avoids resolving permissions again in listeners that
+ * check them for every player event.
  */
 public class AccessUtil {
 
-    private static final Logger logger = getServer().getLogger();
+    private static volatile PermissionCache permissionCache;
+
+    /**
+     * Enables caching of permission decisions.
+     * <p>
+     * Decisions are cached per player and permission node for the given time to live. The decisions of a player are
+     * invalidated when the player quits or is kicked, when the player is the target of an in-game {@code /op} or
+     * {@code /deop} command, and by {@link #refreshPermissions(Player)}. Operator changes made from the console are
+     * only picked up when the decisions expire or are refreshed. Calling this method again replaces the current cache.
+     *
+     * @param plugin     the plugin instance used to register the invalidation listener
+     * @param maxEntries the maximum number of decisions kept across all players
+     * @param ttlMillis  the time in milliseconds after which a decision is checked again
+     */
+    public static void enablePermissionCache(JavaPlugin plugin, int maxEntries, long ttlMillis) {
+        PermissionCache cache = new PermissionCache(maxEntries, ttlMillis);
+        cache.register(plugin);
+
+        PermissionCache previous = permissionCache;
+        permissionCache = cache;
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Disables caching of permission decisions and drops all cached decisions.
+     */
+    public static void disablePermissionCache() {
+        PermissionCache cache = permissionCache;
+        permissionCache = null;
+        if (cache != null) {
+            cache.close();
+        }
+    }
+
+    /**
+     * Drops the cached permission decisions of a player, so that they are checked again on next use.
+     * <p>
+     * Should be called after changing a player's permissions or operator status outside of in-game commands.
+     *
+     * @param player the player whose decisions are dropped
+     */
+    public static void refreshPermissions(Player player) {
+        PermissionCache cache = permissionCache;
+        if (cache != null) {
+            cache.invalidate(player.getName());
+        }
+    }
+
+    /**
+     * Drops the cached permission decisions of all players.
+     */
+    public static void refreshPermissions() {
+        PermissionCache cache = permissionCache;
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * Returns the number of permission checks answered from the cache since it was enabled.
+     *
+     * @return the number of cache hits, or {@code 0} if the cache is not enabled
+     */
+    public static long getPermissionCacheHits() {
+        PermissionCache cache = permissionCache;
+        return cache != null ? cache.getHits() : 0;
+    }
+
+    /**
+     * Returns the number of permission checks that had to be resolved by the server since the cache was enabled.
+     *
+     * @return the number of cache misses, or {@code 0} if the cache is not enabled
+     */
+    public static long getPermissionCacheMisses() {
+        PermissionCache cache = permissionCache;
+        return cache != null ? cache.getMisses() : 0;
+    }
+
+    /**
+     * Returns the number of permission decisions currently cached.
+     *
+     * @return the number of cached decisions, or {@code 0} if the cache is not enabled
+     */
+    public static int getPermissionCacheSize() {
+        PermissionCache cache = permissionCache;
+        return cache != null ? cache.size() : 0;
+    }
 
     /**
      * Checks if the sender has the specified permission.
      * <p>
      * If the sender is not a player (e.g., console), the method returns {@code true} by default.
      * If the sender does not have the required permission and is not an operator, a message is sent to the sender.
+     * The message is rendered through the {@code access.no-permission} catalog message of {@link MessageUtil} and
+     * reused for later denials with the same message.
      *
      * @param sender     the entity executing the command, can be a player or console
      * @param permission the permission node to check
@@ -34,10 +128,8 @@ public class AccessUtil {
             return true;
         }
 
-        boolean hasPermission = sender.hasPermission(permission);
-        boolean isOp = sender.isOp();
-        if (!(hasPermission || isOp)) {
-            sender.sendMessage(translate(String.format("&c%s", message)));
+        if (!check((Player) sender, permission)) {
+            sender.sendMessage(MessageUtil.cachedMessage("access.no-permission", message));
             return false;
         } else {
             return true;
@@ -59,9 +151,66 @@ public class AccessUtil {
             return true;
         }
 
-        boolean hasPermission = sender.hasPermission(permission);
-        boolean isOp = sender.isOp();
-        return hasPermission || isOp;
+        return check((Player) sender, permission);
+    }
+
+    /**
+     * Checks if the player has the specified permission or is an operator, using the permission cache if enabled.
+     *
+     * @param player     the player to check
+     * @param permission the permission node to check
+     * @return {@code true} if the player has the permission or is an operator; {@code false} otherwise
+     */
+    static boolean check(Player player, String permission) {
+        if (!MetricsUtil.isEnabled()) {
+            return checkPermission(player, permission);
+        }
+
+        long start = System.nanoTime();
+        try {
+            return checkPermission(player, permission);
+        } finally {
+            MetricsUtil.PERMISSION_CHECK.record(start);
+        }
+    }
+
+    /**
+     * Checks a permission as described by {@link #check(Player, String)}, without recording metrics.
+     */
+    private static boolean checkPermission(Player player, String permission) {
+        PermissionCache cache = permissionCache;
+        if (cache != null) {
+            return cache.check(player, permission);
+        }
+        return player.hasPermission(permission) || player.isOp();
+    }
+
+    /**
+     * Checks all permission nodes of a compiled set at once.
+     * <p>
+     * If the sender is not a player (e.g., console), every node is granted, and so is every node for an operator.
+     * Otherwise the nodes are evaluated in a single pass over the set: a node set on the player decides on its own,
+     * and a node that is not set is decided by the nearest wildcard above it, such as {@code plugin.*}, that is set, as
+     * described by {@link PermissionSet}. The permission cache is not used, since it does not record whether a node is
+     * set. The result of each node is stored in the given bit set, which is cleared first. The bit set can be reused across
+     * checks, and {@link PermissionSet#anyOf(BitSet)} and {@link PermissionSet#allOf(BitSet)} summarize it. This method
+     * does not send any messages if the sender lacks permissions.
+     *
+     * @param sender      the entity executing the command, can be a player or console
+     * @param permissions the compiled set of permission nodes to check
+     * @param results     the bit set receiving the results, where bit {@code i} is set if the {@code i}-th node of the
+     *                    set is granted
+     * @return the given bit set
+     */
+    public static BitSet hasPermissions(CommandSender sender, PermissionSet permissions, BitSet results) {
+        if (!(sender instanceof Player)) {
+            results.clear();
+            results.set(0, permissions.size());
+            return results;
+        }
+
+        permissions.evaluate((Player) sender, results);
+        return results;
     }
 
     /**
@@ -76,7 +225,7 @@ public class AccessUtil {
      */
     public static boolean commandInGameOnly(CommandSender sender) {
         if (!(sender instanceof Player)) {
-            logger.info("You must be in-game to run this command.");
+            logInfo("You must be in-game to run this command.");
             return true;
         } else {
             return false;
@@ -0,0 +1,208 @@
+package org.example.util;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Background writer that batches log file entries off the calling thread.
+ * <p>
+ * Callers hand entries to a bounded, lock-free queue and return immediately. A single daemon thread keeps the log
+ * file open, drains the queue in batches and writes them once a batch is full or the flush interval has elapsed. When
+ * the queue is full, the configured {@link BackpressurePolicy} decides what happens to the entry.
+ * <p>
+ * <b>Note:</b> Instances are created and managed by {@link LoggerUtil#enableAsyncLogging(int, int, long, BackpressurePolicy)}.
+ */
+public class AsyncLogWriter {
+
+    /**
+     * Determines what happens to an entry submitted while the queue is full.
+     */
+    public enum BackpressurePolicy {
+        /**
+         * Discards the entry and increments the dropped entry counter.
+         */
+        DROP,
+        /**
+         * Waits on the calling thread until the writer has made room in the queue.
+         */
+        BLOCK,
+        /**
+         * Writes the entry directly to the log file on the calling thread.
+         */
+        SYNC
+    }
+
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final LogSink output;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final BackpressurePolicy policy;
+
+    private final ConcurrentLinkedQueue<LogEntry> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Object writeLock = new Object();
+    private final Thread thread;
+
+    private volatile boolean running = true;
+
+    /**
+     * Constructs and starts a new asynchronous log writer.
+     *
+     * @param output             the sink to write entries to
+     * @param pluginName         the name of the plugin, used to name the writer thread
+     * @param capacity           the maximum number of entries waiting to be written
+     * @param batchSize          the number of entries after which a batch is written
+     * @param flushIntervalMillis the maximum time in milliseconds an entry waits before its batch is written
+     * @param policy             the policy applied when the queue is full
+     */
+    AsyncLogWriter(LogSink output, String pluginName, int capacity, int batchSize, long flushIntervalMillis, BackpressurePolicy policy) {
+        if (capacity <= 0 || batchSize <= 0 || flushIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Capacity, batch size and flush interval must be positive.");
+        }
+
+        this.output = output;
+        this.capacity = capacity;
+        this.batchSize = Math.min(batchSize, capacity);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.policy = policy;
+
+        this.thread = new Thread(this::run, pluginName + "-LogWriter");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Submits an entry to be written by the background thread.
+     * <p>
+     * If the queue is full, the entry is handled according to the configured {@link BackpressurePolicy}. Once the
+     * writer has been closed, entries are written directly on the calling thread.
+     *
+     * @param entry the entry to write
+     */
+    void submit(LogEntry entry) {
+        if (!running) {
+            writeDirect(entry);
+            return;
+        }
+
+        int count;
+        while ((count = tryEnqueue(entry)) < 0) {
+            switch (policy) {
+                case DROP:
+                    dropped.incrementAndGet();
+                    return;
+                case SYNC:
+                    writeDirect(entry);
+                    return;
+                default:
+                    if (!running) {
+                        writeDirect(entry);
+                        return;
+                    }
+                    LockSupport.unpark(thread);
+                    LockSupport.parkNanos(BLOCK_PARK_NANOS);
+            }
+        }
+
+        // An entry queued while the writer was closing may have missed its final drain, so it is written here
+        if (!running) {
+            synchronized (writeLock) {
+                if (drainAndWrite(Integer.MAX_VALUE) > 0) {
+                    output.release();
+                }
+            }
+            return;
+        }
+
+        // Wake the writer once per full batch; partial batches are picked up when the flush interval elapses
+        if (count == batchSize) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Returns the number of entries discarded because the queue was full.
+     *
+     * @return the dropped entry count
+     */
+    long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Stops the background thread after it has written every queued entry and releases the log file.
+     * <p>
+     * Entries submitted concurrently are either written by the final drain or, if they are queued after it, by the
+     * submitting thread itself, so none are left behind in the queue.
+     */
+    void close() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (writeLock) {
+            drainAndWrite(Integer.MAX_VALUE);
+            output.release();
+        }
+    }
+
+    private int tryEnqueue(LogEntry entry) {
+        int count = pending.incrementAndGet();
+        if (count > capacity) {
+            pending.decrementAndGet();
+            return -1;
+        }
+        queue.offer(entry);
+        return count;
+    }
+
+    private void run() {
+        long lastFlush = System.nanoTime();
+        while (running || pending.get() > 0) {
+            long now = System.nanoTime();
+            int queued = pending.get();
+            if (queued >= batchSize || (queued > 0 && now - lastFlush >= flushIntervalNanos) || !running) {
+                synchronized (writeLock) {
+                    drainAndWrite(batchSize);
+                }
+                lastFlush = System.nanoTime();
+                continue;
+            }
+
+            // Sleep until a batch fills up or the oldest queued entry reaches the flush interval
+            long wait = queued == 0 ? flushIntervalNanos : flushIntervalNanos - (now - lastFlush);
+            LockSupport.parkNanos(this, wait);
+        }
+    }
+
+    private int drainAndWrite(int max) {
+        int count = 0;
+        LogEntry entry;
+        while (count < max && (entry = queue.poll()) != null) {
+            pending.decrementAndGet();
+            output.append(entry);
+            count++;
+        }
+
+        if (count > 0) {
+            output.flush(true);
+        }
+        return count;
+    }
+
+    private void writeDirect(LogEntry entry) {
+        synchronized (writeLock) {
+            output.write(entry, running);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package org.example.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reader for the structured binary log written by {@link LoggerUtil} in binary mode.
+ * <p>
+ * Time-range queries only open the segments whose time span overlaps the range. Within a segment, the sparse index is
+ * binary-searched for the last index entry before the start of the range, and records are then read sequentially
+ * from a memory-mapped view of the segment until the end of the range is passed. Stopping there is safe because
+ * {@link BinaryLogWriter} never stores a timestamp earlier than the one before it. Matching entries are handed to a
+ * {@link RecordVisitor} one at a time, so the log is never loaded into memory as a whole.
+ */
+public class BinaryLogReader {
+
+    private final File directory;
+    private final String baseName;
+
+    /**
+     * Callback receiving the entries matched by a query, in the order they were written.
+     */
+    @FunctionalInterface
+    public interface RecordVisitor {
+
+        /**
+         * Visits a single log entry.
+         *
+         * @param timeMillis  the time the entry was logged, in milliseconds since the epoch
+         * @param text        the text of the entry
+         * @param logDateTime {@code true} if the entry was written with a timestamp
+         * @return {@code true} to continue the query, or {@code false} to stop it
+         */
+        boolean visit(long timeMillis, String text, boolean logDateTime);
+    }
+
+    /**
+     * Constructs a reader for the binary log segments with the given name prefix.
+     *
+     * @param directory the directory that holds the segments
+     * @param baseName  the file name prefix of the segments
+     */
+    public BinaryLogReader(File directory, String baseName) {
+        this.directory = directory;
+        this.baseName = baseName;
+    }
+
+    /**
+     * Streams every entry logged within the given time range, inclusive on both ends.
+     *
+     * @param fromMillis the start of the range, in milliseconds since the epoch
+     * @param toMillis   the end of the range, in milliseconds since the epoch
+     * @param visitor    the visitor receiving the matching entries
+     * @return the number of entries visited
+     * @throws IOException if a segment cannot be read
+     */
+    public long query(long fromMillis, long toMillis, RecordVisitor visitor) throws IOException {
+        long[] segments = listSegments(directory, baseName);
+        Arrays.sort(segments);
+
+        long visited = 0;
+        for (int i = 0; i < segments.length; i++) {
+            // A segment covers everything up to the start of the next one, and its last records may share the next
+            // segment's first timestamp. Names are never earlier than the first record, so a name past the range is
+            // only trusted once the first record confirms it, since rolling over within a millisecond bumps the name.
+            if (i + 1 < segments.length && segments[i + 1] < fromMillis) {
+                continue;
+            }
+            if (segments[i] > toMillis && firstMillis(segments[i]) > toMillis) {
+                break;
+            }
+
+            long result = querySegment(segments[i], fromMillis, toMillis, visitor);
+            if (result < 0) {
+                return visited - result - 1;
+            }
+            visited += result;
+        }
+        return visited;
+    }
+
+    /**
+     * Queries a single segment.
+     *
+     * @return the number of entries visited, or {@code -(visited + 1)} if the visitor stopped the query
+     */
+    private long querySegment(long segmentName, long fromMillis, long toMillis, RecordVisitor visitor) throws IOException {
+        File data = new File(directory, baseName + "-" + segmentName + BinaryLogWriter.SEGMENT_EXTENSION);
+        File index = new File(directory, baseName + "-" + segmentName + BinaryLogWriter.INDEX_EXTENSION);
+
+        long start = index.exists() ? seek(index, fromMillis) : 0L;
+        long visited = 0;
+
+        try (FileChannel channel = FileChannel.open(data.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (start >= size) {
+                return 0;
+            }
+
+            // Segments roll over well below the 2 GB limit of a single mapping
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, start, size - start);
+            byte[] text = new byte[256];
+            while (map.remaining() >= Integer.BYTES) {
+                int length = map.getInt();
+                if (length < BinaryLogWriter.RECORD_HEADER_BYTES || length > map.remaining()) {
+                    break; // Partially written record at the end of the active segment
+                }
+
+                long timeMillis = map.getLong();
+                if (timeMillis > toMillis) {
+                    break;
+                }
+                if (timeMillis < fromMillis) {
+                    map.position(map.position() + length - Long.BYTES);
+                    continue;
+                }
+
+                byte flags = map.get();
+                int textLength = length - BinaryLogWriter.RECORD_HEADER_BYTES;
+                if (text.length < textLength) {
+                    text = new byte[Math.max(textLength, text.length * 2)];
+                }
+                map.get(text, 0, textLength);
+
+                visited++;
+                boolean logDateTime = (flags & BinaryLogWriter.FLAG_DATE_TIME) != 0;
+                if (!visitor.visit(timeMillis, new String(text, 0, textLength, StandardCharsets.UTF_8), logDateTime)) {
+                    return -(visited + 1);
+                }
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * Returns the time of the first record in a segment, or the segment's name if it holds no complete record yet.
+     */
+    private long firstMillis(long segmentName) throws IOException {
+        File data = new File(directory, baseName + "-" + segmentName + BinaryLogWriter.SEGMENT_EXTENSION);
+        try (FileChannel channel = FileChannel.open(data.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + Long.BYTES);
+            int read;
+            do {
+                read = channel.read(header, header.position());
+            } while (read > 0 && header.hasRemaining());
+            return header.hasRemaining() ? segmentName : header.getLong(Integer.BYTES);
+        }
+    }
+
+    /**
+     * Returns the segment offset of the last indexed record logged before the given time.
+     * <p>
+     * Records logged at exactly the given time may precede an index entry with the same time, so such entries are
+     * never used as a starting point.
+     */
+    private static long seek(File index, long fromMillis) throws IOException {
+        try (FileChannel channel = FileChannel.open(index.toPath(), StandardOpenOption.READ)) {
+            int entries = (int) (channel.size() / (2 * Long.BYTES));
+            if (entries == 0) {
+                return 0L;
+            }
+
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, (long) entries * 2 * Long.BYTES);
+            int low = 0;
+            int high = entries - 1;
+            int match = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (map.getLong(mid * 2 * Long.BYTES) < fromMillis) {
+                    match = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return match < 0 ? 0L : map.getLong(match * 2 * Long.BYTES + Long.BYTES);
+        }
+    }
+
+    /**
+     * Lists the segments with the given name prefix.
+     *
+     * @param directory the directory that holds the segments
+     * @param baseName  the file name prefix of the segments
+     * @return the first-entry timestamps that name the segments, in no particular order
+     */
+    static long[] listSegments(File directory, String baseName) {
+        String prefix = baseName + "-";
+        String[] names = directory.list((dir, name) -> name.startsWith(prefix) && name.endsWith(BinaryLogWriter.SEGMENT_EXTENSION));
+        if (names == null) {
+            return new long[0];
+        }
+
+        long[] segments = new long[names.length];
+        int count = 0;
+        for (String name : names) {
+            try {
+                segments[count] = Long.parseLong(name.substring(prefix.length(), name.length() - BinaryLogWriter.SEGMENT_EXTENSION.length()));
+                count++;
+            } catch (NumberFormatException ignored) {
+                // Not a segment written by BinaryLogWriter
+            }
+        }
+        return Arrays.copyOf(segments, count);
+    }
+}
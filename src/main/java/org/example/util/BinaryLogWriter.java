@@ -0,0 +1,230 @@
+package org.example.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.example.util.LoggerUtil.logSevere;
+import static org.example.util.LoggerUtil.logWarning;
+
+/**
+ * Structured binary log made of length-prefixed records with a sparse timestamp index per segment.
+ * <p>
+ * Each record is stored as {@code [int length][long epochMillis][byte flags][UTF-8 text]}, where {@code length} covers
+ * everything after itself. Records are appended to a segment file named {@code <name>-<firstMillis>.blog}. Whenever at
+ * least {@link #INDEX_INTERVAL} bytes have been written since the last index entry, a {@code [long epochMillis][long
+ * offset]} pair pointing at the next record is appended to the matching {@code .bidx} file. {@link BinaryLogReader}
+ * uses that index to seek close to the start of a time range instead of scanning the whole segment.
+ * <p>
+ * Timestamps never decrease within the log. Entries can arrive slightly out of order, for example when several threads
+ * log at once or when entries bypass the asynchronous queue, so an entry stamped earlier than the previous one is
+ * stored with the previous entry's timestamp. This keeps the index sorted and lets readers stop at the first record past
+ * the end of a range.
+ * <p>
+ * Segments roll over once they reach the configured size, and the oldest segments beyond the retention limit are
+ * deleted.
+ */
+final class BinaryLogWriter implements LogSink {
+
+    /**
+     * The minimum number of segment bytes between two index entries.
+     */
+    static final int INDEX_INTERVAL = 4096;
+    static final String SEGMENT_EXTENSION = ".blog";
+    static final String INDEX_EXTENSION = ".bidx";
+    static final int RECORD_HEADER_BYTES = Long.BYTES + 1;
+    static final byte FLAG_DATE_TIME = 1;
+
+    private final File directory;
+    private final String baseName;
+    private final String pluginName;
+    private final long maxSegmentBytes;
+    private final int maxSegments;
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+    private final ByteBuffer indexBuffer = ByteBuffer.allocateDirect(4 * 1024);
+
+    private FileChannel segment;
+    private FileChannel index;
+    private long segmentName = -1;
+    private long segmentSize;
+    private long lastIndexedOffset = -INDEX_INTERVAL;
+    private long lastMillis = Long.MIN_VALUE;
+
+    /**
+     * Constructs a new binary log writer.
+     *
+     * @param directory       the directory that holds the segments
+     * @param baseName        the file name prefix of the segments
+     * @param pluginName      the name of the plugin, used in error messages
+     * @param maxSegmentBytes the size in bytes at which a segment is rolled over
+     * @param maxSegments     the number of newest segments to keep, or {@code 0} to keep every segment
+     */
+    BinaryLogWriter(File directory, String baseName, String pluginName, long maxSegmentBytes, int maxSegments) {
+        if (maxSegmentBytes <= 0) {
+            throw new IllegalArgumentException("Segment size must be positive.");
+        }
+
+        this.directory = directory;
+        this.baseName = baseName;
+        this.pluginName = pluginName;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.maxSegments = Math.max(0, maxSegments);
+    }
+
+    @Override
+    public synchronized void append(LogEntry entry) {
+        byte[] text = entry.text.getBytes(StandardCharsets.UTF_8);
+        int recordBytes = Integer.BYTES + RECORD_HEADER_BYTES + text.length;
+        long timeMillis = Math.max(entry.timeMillis, lastMillis);
+
+        try {
+            if (segmentName < 0 || segmentSize >= maxSegmentBytes) {
+                writeBuffers();
+                startSegment(timeMillis);
+            } else if (segment == null) {
+                openSegment(StandardOpenOption.APPEND);
+            }
+
+            if (buffer.remaining() < recordBytes || indexBuffer.remaining() < 2 * Long.BYTES) {
+                writeBuffers();
+            }
+            if (segmentSize - lastIndexedOffset >= INDEX_INTERVAL) {
+                indexBuffer.putLong(timeMillis).putLong(segmentSize);
+                lastIndexedOffset = segmentSize;
+            }
+
+            if (buffer.remaining() < recordBytes) {
+                ByteBuffer record = ByteBuffer.allocate(recordBytes);
+                putRecord(record, timeMillis, entry.logDateTime, text);
+                record.flip();
+                while (record.hasRemaining()) {
+                    segment.write(record);
+                }
+                writeBuffers();
+            } else {
+                putRecord(buffer, timeMillis, entry.logDateTime, text);
+            }
+            segmentSize += recordBytes;
+            lastMillis = timeMillis;
+        } catch (IOException e) {
+            buffer.clear();
+            indexBuffer.clear();
+            logSevere("[%s] Could not write to binary log '%s': %s", pluginName, baseName, e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void flush(boolean keepOpen) {
+        try {
+            writeBuffers();
+        } catch (IOException e) {
+            buffer.clear();
+            indexBuffer.clear();
+            logSevere("[%s] Could not write to binary log '%s': %s", pluginName, baseName, e.getMessage());
+        }
+
+        if (!keepOpen) {
+            closeSegment();
+        }
+    }
+
+    @Override
+    public synchronized void release() {
+        flush(false);
+    }
+
+    @Override
+    public synchronized void close() {
+        flush(false);
+    }
+
+    private static void putRecord(ByteBuffer target, long timeMillis, boolean logDateTime, byte[] text) {
+        target.putInt(RECORD_HEADER_BYTES + text.length)
+                .putLong(timeMillis)
+                .put(logDateTime ? FLAG_DATE_TIME : 0)
+                .put(text);
+    }
+
+    private void writeBuffers() throws IOException {
+        if (segment == null) {
+            return;
+        }
+
+        // Records are written before the index entries that point at them, so readers never follow a dangling offset
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            segment.write(buffer);
+        }
+        buffer.clear();
+
+        indexBuffer.flip();
+        while (indexBuffer.hasRemaining()) {
+            index.write(indexBuffer);
+        }
+        indexBuffer.clear();
+    }
+
+    private void startSegment(long firstMillis) throws IOException {
+        closeSegment();
+
+        long name = firstMillis;
+        while (new File(directory, baseName + "-" + name + SEGMENT_EXTENSION).exists()) {
+            name++;
+        }
+
+        segmentName = name;
+        segmentSize = 0;
+        lastIndexedOffset = -INDEX_INTERVAL;
+        openSegment(StandardOpenOption.TRUNCATE_EXISTING);
+
+        deleteOldSegments();
+    }
+
+    private void openSegment(StandardOpenOption mode) throws IOException {
+        segment = FileChannel.open(new File(directory, baseName + "-" + segmentName + SEGMENT_EXTENSION).toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, mode);
+        index = FileChannel.open(new File(directory, baseName + "-" + segmentName + INDEX_EXTENSION).toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, mode);
+    }
+
+    private void closeSegment() {
+        try {
+            if (segment != null) {
+                segment.close();
+            }
+            if (index != null) {
+                index.close();
+            }
+        } catch (IOException e) {
+            logSevere("[%s] Could not close binary log '%s': %s", pluginName, baseName, e.getMessage());
+        } finally {
+            segment = null;
+            index = null;
+        }
+    }
+
+    private void deleteOldSegments() {
+        if (maxSegments == 0) {
+            return;
+        }
+
+        long[] segments = BinaryLogReader.listSegments(directory, baseName);
+        if (segments.length <= maxSegments) {
+            return;
+        }
+
+        Arrays.sort(segments);
+        for (int i = 0; i < segments.length - maxSegments; i++) {
+            File data = new File(directory, baseName + "-" + segments[i] + SEGMENT_EXTENSION);
+            File dataIndex = new File(directory, baseName + "-" + segments[i] + INDEX_EXTENSION);
+            if (!data.delete() || (dataIndex.exists() && !dataIndex.delete())) {
+                logWarning("[%s] Could not delete old binary log segment '%s'.", pluginName, data.getName());
+            }
+        }
+    }
+}
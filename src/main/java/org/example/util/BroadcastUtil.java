@@ -0,0 +1,160 @@
+package org.example.util;
+
+import org.bukkit.entity.Player;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+import static org.bukkit.Bukkit.getServer;
+import static org.example.util.ColorUtil.translate;
+
+/**
+ * Utility class for sending the same message to many online players.
+ * <p>
+ * A broadcast translates the message's color codes once and resolves its recipients in a single pass over the online
+ * players, either all of them, those with a permission checked through {@link AccessUtil}, or those matching a filter.
+ * Every recipient is then sent the same translated string.
+ * <p>
+ * Large audiences can be spread across ticks with {@link #enableBatching(TickScheduler, int, int)}. A broadcast with
+ * more recipients than the threshold is then split into batches, each sent as one unit of work of the
+ * {@link TickScheduler}, and recipients who have gone offline by the time their batch runs are skipped. Batches the
+ * scheduler rejects because it has been disabled are sent immediately.
+ */
+public class BroadcastUtil {
+
+    private static volatile Batching batching;
+
+    /**
+     * Spreads broadcasts to more than a number of recipients across ticks.
+     * <p>
+     * Calling this method again replaces the current settings. Batches already submitted are still sent.
+     *
+     * @param scheduler the scheduler that sends the batches; must be enabled by the caller
+     * @param threshold the number of recipients above which a broadcast is batched
+     * @param batchSize the number of recipients sent to per unit of work
+     */
+    public static void enableBatching(TickScheduler scheduler, int threshold, int batchSize) {
+        if (scheduler == null) {
+            throw new IllegalArgumentException("Scheduler must not be null.");
+        }
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Batching threshold must not be negative.");
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive.");
+        }
+        batching = new Batching(scheduler, threshold, batchSize);
+    }
+
+    /**
+     * Stops spreading broadcasts across ticks, so that every broadcast is sent immediately.
+     */
+    public static void disableBatching() {
+        batching = null;
+    }
+
+    /**
+     * Sends a message to every online player.
+     * <p>
+     * Must be called on the main thread.
+     *
+     * @param message the message to send, with {@code &} color codes
+     * @return the number of recipients
+     */
+    public static int broadcast(String message) {
+        return broadcast(message, (Predicate<Player>) null);
+    }
+
+    /**
+     * Sends a message to every online player who has a permission or is an operator.
+     * <p>
+     * The permission is checked through {@link AccessUtil#hasPermission(org.bukkit.command.CommandSender, String)}, so
+     * the permission cache is used if it is enabled. Must be called on the main thread.
+     *
+     * @param message    the message to send, with {@code &} color codes
+     * @param permission the permission node recipients must have
+     * @return the number of recipients
+     */
+    public static int broadcast(String message, String permission) {
+        return broadcast(message, player -> AccessUtil.hasPermission(player, permission));
+    }
+
+    /**
+     * Sends a message to every online player matching a filter.
+     * <p>
+     * Must be called on the main thread.
+     *
+     * @param message the message to send, with {@code &} color codes
+     * @param filter  the filter recipients must match, or {@code null} to send to every online player
+     * @return the number of recipients
+     */
+    public static int broadcast(String message, Predicate<? super Player> filter) {
+        String translated = translate(message);
+        Player[] online = getServer().getOnlinePlayers();
+
+        Player[] recipients;
+        int count;
+        if (filter == null) {
+            recipients = online;
+            count = online.length;
+        } else {
+            recipients = new Player[online.length];
+            count = 0;
+            for (Player player : online) {
+                if (filter.test(player)) {
+                    recipients[count++] = player;
+                }
+            }
+        }
+
+        Batching settings = batching;
+        if (settings == null || count <= settings.threshold) {
+            for (int i = 0; i < count; i++) {
+                recipients[i].sendMessage(translated);
+            }
+        } else {
+            Player[] snapshot = filter == null ? Arrays.copyOf(recipients, count) : recipients;
+            for (int from = 0; from < count; from += settings.batchSize) {
+                int start = from;
+                int end = Math.min(count, from + settings.batchSize);
+                if (!settings.scheduler.submit(() -> sendBatch(snapshot, start, end, translated))) {
+                    sendBatch(snapshot, start, end, translated);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Sends a message to the recipients in a range who are still online.
+     *
+     * @param recipients the recipients of the broadcast
+     * @param start      the index of the first recipient of the batch
+     * @param end        the index after the last recipient of the batch
+     * @param message    the translated message to send
+     */
+    private static void sendBatch(Player[] recipients, int start, int end, String message) {
+        for (int i = start; i < end; i++) {
+            Player player = recipients[i];
+            if (player.isOnline()) {
+                player.sendMessage(message);
+            }
+        }
+    }
+
+    /**
+     * The settings for spreading broadcasts across ticks.
+     */
+    private static final class Batching {
+
+        private final TickScheduler scheduler;
+        private final int threshold;
+        private final int batchSize;
+
+        private Batching(TickScheduler scheduler, int threshold, int batchSize) {
+            this.scheduler = scheduler;
+            this.threshold = threshold;
+            this.batchSize = batchSize;
+        }
+    }
+}
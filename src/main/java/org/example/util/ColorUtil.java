@@ -1,13 +1,30 @@
 package org.example.util;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Utility class for translating color codes in text to Minecraft's color code format.
  * <p>
- * This class provides a method to scan text for color codes prefixed with an ampersand ({@code &}) and replace them with
- * the appropriate Minecraft color code format using the section sign ({@code §}) symbol.
+ * This class provides methods to scan text for color codes prefixed with an ampersand ({@code &}) and replace them with
+ * the appropriate Minecraft color code format using the section sign ({@code §}) symbol, or to strip color codes from
+ * text meant for the console.
+ * <p>
+ * Valid code characters are looked up in a table rather than searched for, and text without any color codes is
+ * returned as the same instance without copying. The {@code Into} variants append to a caller-supplied
+ * {@link StringBuilder} so that callers building larger messages can avoid intermediate strings.
  */
 public class ColorUtil {
 
+    private static final char COLOR_CHAR = '§';
+    private static final boolean[] CODES = new boolean[128];
+
+    static {
+        for (char c : "0123456789AaBbCcDdEeFf".toCharArray()) {
+            CODES[c] = true;
+        }
+    }
+
     /**
      * Translates color codes in the given text to Minecraft's color code format.
      * <p>
@@ -23,13 +40,134 @@ public class ColorUtil {
      * @return the translated text with Minecraft color codes, or the original text if no color codes are found
      */
     public static String translate(String text) {
+        if (!MetricsUtil.isEnabled()) {
+            return translateCodes(text);
+        }
+
+        long start = System.nanoTime();
+        try {
+            return translateCodes(text);
+        } finally {
+            MetricsUtil.COLOR_TRANSLATE.record(start);
+        }
+    }
+
+    /**
+     * Translates color codes as described by {@link #translate(String)}, without recording metrics.
+     */
+    private static String translateCodes(String text) {
+        int first = nextCode(text, '&', 0);
+        if (first < 0) {
+            return text;
+        }
+
         char[] translation = text.toCharArray();
-        for (int i = 0; i < translation.length - 1; ++i) {
-            if (translation[i] == '&' && "0123456789AaBbCcDdEeFf".indexOf(translation[i + 1]) > -1) {
-                translation[i] = 167;
+        for (int i = first; i < translation.length - 1; ++i) {
+            if (translation[i] == '&' && isCode(translation[i + 1])) {
+                translation[i] = COLOR_CHAR;
                 translation[i + 1] = Character.toLowerCase(translation[i + 1]);
+                ++i;
             }
         }
         return new String(translation);
     }
+
+    /**
+     * Translates color codes in the given text and appends the result to a builder.
+     * <p>
+     * The translation follows the same rules as {@link #translate(String)}, without creating an intermediate string.
+     *
+     * @param text    the input text containing color codes to be translated
+     * @param builder the builder to append the translated text to
+     *
+     * @return the given builder
+     */
+    public static StringBuilder translateInto(CharSequence text, StringBuilder builder) {
+        int length = text.length();
+        builder.ensureCapacity(builder.length() + length);
+        for (int i = 0; i < length; ++i) {
+            char c = text.charAt(i);
+            if (c == '&' && i + 1 < length && isCode(text.charAt(i + 1))) {
+                builder.append(COLOR_CHAR).append(Character.toLowerCase(text.charAt(++i)));
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder;
+    }
+
+    /**
+     * Translates color codes in each of the given lines.
+     *
+     * @param lines the lines containing color codes to be translated
+     *
+     * @return a new list holding the translated lines in the same order
+     */
+    public static List<String> translate(List<String> lines) {
+        List<String> translated = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            translated.add(translate(line));
+        }
+        return translated;
+    }
+
+    /**
+     * Removes color codes from the given text.
+     * <p>
+     * Both untranslated codes ({@code &a}) and translated codes ({@code §a}) are removed, which makes the text suitable
+     * for the server console.
+     *
+     * @param text the input text containing color codes to be removed
+     *
+     * @return the text without color codes, or the original text if no color codes are found
+     */
+    public static String strip(String text) {
+        if (nextCode(text, '&', 0) < 0 && nextCode(text, COLOR_CHAR, 0) < 0) {
+            return text;
+        }
+        return stripInto(text, new StringBuilder(text.length())).toString();
+    }
+
+    /**
+     * Removes color codes from the given text and appends the result to a builder.
+     * <p>
+     * The codes removed are the same as for {@link #strip(String)}.
+     *
+     * @param text    the input text containing color codes to be removed
+     * @param builder the builder to append the stripped text to
+     *
+     * @return the given builder
+     */
+    public static StringBuilder stripInto(CharSequence text, StringBuilder builder) {
+        int length = text.length();
+        for (int i = 0; i < length; ++i) {
+            char c = text.charAt(i);
+            if ((c == '&' || c == COLOR_CHAR) && i + 1 < length && isCode(text.charAt(i + 1))) {
+                ++i;
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder;
+    }
+
+    /**
+     * Finds the next color code in the text that starts with the given prefix character.
+     *
+     * @return the index of the prefix character, or {@code -1} if there is none
+     */
+    private static int nextCode(String text, char prefix, int from) {
+        int i = text.indexOf(prefix, from);
+        while (i >= 0 && i < text.length() - 1) {
+            if (isCode(text.charAt(i + 1))) {
+                return i;
+            }
+            i = text.indexOf(prefix, i + 1);
+        }
+        return -1;
+    }
+
+    private static boolean isCode(char c) {
+        return c < CODES.length && CODES[c];
+    }
 }
@@ -0,0 +1,243 @@
+package org.example.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Binary cache of a parsed configuration file.
+ * <p>
+ * After a configuration has been parsed, its value tree is written to a cache file next to it, together with the size,
+ * modification time and CRC-32 checksum of the source file. On the next load, the cache is memory-mapped and decoded
+ * directly if all three still match, which skips YAML parsing entirely. Any mismatch, unreadable cache or value type
+ * the cache cannot represent makes the caller fall back to parsing the YAML file.
+ * <p>
+ * The cache file starts with a header of a magic number, a format version, and the source file's size, modification
+ * time and checksum. It is followed by the root map, where every value is a type tag and its payload: maps and lists
+ * as an element count and their elements in order, strings as a length and UTF-8 bytes, and numbers and booleans in
+ * their binary form. Maps are read back in their original key order, so a configuration saved after being loaded
+ * from the cache keeps its layout.
+ * <p>
+ * <b>Note:</b> Used by {@link ConfigUtil#setParseCacheEnabled(boolean)}.
+ */
+final class ConfigCache {
+
+    private static final int MAGIC = 0x43464743;
+    private static final byte FORMAT_VERSION = 1;
+
+    private static final byte NULL = 0;
+    private static final byte MAP = 1;
+    private static final byte LIST = 2;
+    private static final byte STRING = 3;
+    private static final byte INTEGER = 4;
+    private static final byte LONG = 5;
+    private static final byte DOUBLE = 6;
+    private static final byte BOOLEAN = 7;
+
+    private ConfigCache() {
+    }
+
+    /**
+     * Returns the cache file used for a configuration file.
+     *
+     * @param source the configuration file
+     * @return the cache file next to it
+     */
+    static File cacheFile(File source) {
+        return new File(source.getParentFile(), "." + source.getName() + ".cache");
+    }
+
+    /**
+     * Reads the cached value tree of a configuration file if the cache matches the file's current contents.
+     *
+     * @param source the configuration file
+     * @return the root map, or {@code null} if there is no matching cache
+     * @throws IOException if the configuration file cannot be read
+     */
+    static Map<Object, Object> read(File source) throws IOException {
+        File cache = cacheFile(source);
+        if (!cache.isFile() || !source.isFile()) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(cache.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.get() != FORMAT_VERSION) {
+                return null;
+            }
+
+            long size = buffer.getLong();
+            long modified = buffer.getLong();
+            long checksum = buffer.getLong();
+            if (size != source.length() || modified != source.lastModified() || checksum != checksum(source.toPath())) {
+                return null;
+            }
+
+            Object root = readValue(buffer);
+            return root instanceof Map ? castMap(root) : null;
+        } catch (RuntimeException e) {
+            // A corrupt cache is treated like a missing one, so the file is parsed instead
+            return null;
+        }
+    }
+
+    /**
+     * Writes the value tree of a configuration file to its cache.
+     *
+     * @param source the configuration file the values were parsed from
+     * @param root   the parsed root map
+     * @return {@code true} if the cache was written; {@code false} if the values contain a type the cache cannot hold
+     * @throws IOException if the cache file cannot be written
+     */
+    static boolean write(File source, Map<?, ?> root) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeByte(FORMAT_VERSION);
+            out.writeLong(source.length());
+            out.writeLong(source.lastModified());
+            out.writeLong(checksum(source.toPath()));
+            if (!writeValue(out, root)) {
+                return false;
+            }
+        }
+
+        Path target = cacheFile(source).toPath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            bytes.writeTo(out);
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return true;
+    }
+
+    private static boolean writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.writeByte(MAP);
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!writeValue(out, entry.getKey()) || !writeValue(out, entry.getValue())) {
+                    return false;
+                }
+            }
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            out.writeByte(LIST);
+            out.writeInt(list.size());
+            for (Object element : list) {
+                if (!writeValue(out, element)) {
+                    return false;
+                }
+            }
+        } else if (value instanceof String) {
+            byte[] utf8 = ((String) value).getBytes(StandardCharsets.UTF_8);
+            out.writeByte(STRING);
+            out.writeInt(utf8.length);
+            out.write(utf8);
+        } else if (value instanceof Integer) {
+            out.writeByte(INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private static Object readValue(MappedByteBuffer buffer) {
+        byte type = buffer.get();
+        switch (type) {
+            case NULL:
+                return null;
+            case MAP: {
+                int size = readLength(buffer);
+                Map<Object, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < size; i++) {
+                    Object key = readValue(buffer);
+                    map.put(key, readValue(buffer));
+                }
+                return map;
+            }
+            case LIST: {
+                int size = readLength(buffer);
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(buffer));
+                }
+                return list;
+            }
+            case STRING: {
+                byte[] utf8 = new byte[readLength(buffer)];
+                buffer.get(utf8);
+                return new String(utf8, StandardCharsets.UTF_8);
+            }
+            case INTEGER:
+                return buffer.getInt();
+            case LONG:
+                return buffer.getLong();
+            case DOUBLE:
+                return buffer.getDouble();
+            case BOOLEAN:
+                return buffer.get() != 0;
+            default:
+                throw new IllegalArgumentException("Unknown value type " + type);
+        }
+    }
+
+    /**
+     * Reads the length of a map, list or string, which cannot exceed the bytes left in the cache, as every entry,
+     * element and character takes at least one byte.
+     *
+     * @param buffer the cache contents
+     * @return the length
+     * @throws IllegalArgumentException if the length is negative or exceeds the bytes left, i.e. the cache is corrupt
+     */
+    private static int readLength(MappedByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid length " + length);
+        }
+        return length;
+    }
+
+    private static long checksum(Path source) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(Files.readAllBytes(source));
+        return crc.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Object, Object> castMap(Object map) {
+        return (Map<Object, Object>) map;
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.util;
+
+/**
+ * A configuration key path compiled once into a handle for {@link ConfigSnapshot} lookups.
+ * <p>
+ * Every snapshot stores its values in arrays sized by its own number of keys, at slots assigned by the configuration's
+ * layout. A handle remembers its slot in the layout it was last looked up in, so reading a value through a handle that
+ * is used with one configuration is a reference comparison and an array read, without splitting the path or hashing
+ * it. The slot is looked up again when the handle is used with another configuration or after a reload changed the
+ * configuration's keys.
+ * <p>
+ * Handles are meant to be compiled once and kept in constants:
+ * <pre>{@code
+ * private static final ConfigPath MAX_HOMES = ConfigPath.of("settings.max-homes");
+ *
+ * int maxHomes = config.snapshot().getInt(MAX_HOMES, 3);
+ * }</pre>
+ */
+public final class ConfigPath {
+
+    private final String path;
+    volatile ConfigSnapshot.Slot slot;
+
+    private ConfigPath(String path) {
+        this.path = path;
+    }
+
+    /**
+     * Compiles a key path.
+     *
+     * @param path the dot-separated key path
+     * @return the handle of the path
+     */
+    public static ConfigPath of(String path) {
+        if (path == null) {
+            throw new IllegalArgumentException("Path must not be null.");
+        }
+        return new ConfigPath(path);
+    }
+
+    /**
+     * Returns the dot-separated key path of this handle.
+     *
+     * @return the key path
+     */
+    public String getPath() {
+        return path;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof ConfigPath && path.equals(((ConfigPath) other).path);
+    }
+
+    @Override
+    public int hashCode() {
+        return path.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+}
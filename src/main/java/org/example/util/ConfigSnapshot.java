@@ -0,0 +1,262 @@
+package org.example.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable, flattened view of a configuration at one point in time.
+ * <p>
+ * A snapshot is built from a loaded {@link ConfigUtil} and holds every value of it, read through {@link ConfigPath}
+ * handles. Integers, decimals and booleans are kept in primitive arrays, and other values such as strings and lists in
+ * an object array, all sized by the configuration's number of keys and indexed by the slot its layout assigns to each
+ * key. A reload with the same keys reuses the layout of the previous snapshot. Because a snapshot never changes after
+ * it is built, it can be read from any thread without locking, and reading primitive values allocates nothing once a
+ * handle has been used with the snapshot's layout.
+ * <p>
+ * The getters convert values the same way {@link org.bukkit.util.config.ConfigurationNode} does: numbers can be read
+ * as either integers or decimals, any value can be read as a string, and a missing value or a value of another type
+ * yields the given default.
+ */
+public final class ConfigSnapshot {
+
+    /**
+     * A snapshot without any values.
+     */
+    public static final ConfigSnapshot EMPTY = new ConfigSnapshot(Collections.emptyMap(), null);
+
+    private static final byte NONE = 0;
+    private static final byte INTEGER = 1;
+    private static final byte DECIMAL = 2;
+    private static final byte BOOLEAN = 3;
+    private static final byte OBJECT = 4;
+
+    private final Layout layout;
+    private final byte[] types;
+    private final long[] integers;
+    private final double[] decimals;
+    private final boolean[] booleans;
+    private final Object[] objects;
+    private final int size;
+
+    /**
+     * Builds a snapshot from flattened configuration values.
+     *
+     * @param values   the values keyed by their dot-separated path, as returned by
+     *                 {@link org.bukkit.util.config.ConfigurationNode#getAll()}
+     * @param previous the snapshot being replaced, whose layout is reused if it has the same keys, or {@code null}
+     */
+    ConfigSnapshot(Map<String, Object> values, ConfigSnapshot previous) {
+        this.layout = previous != null && previous.layout.slots.keySet().equals(values.keySet())
+                ? previous.layout
+                : new Layout(values.keySet());
+
+        int length = layout.slots.size();
+        this.types = new byte[length];
+        this.integers = new long[length];
+        this.decimals = new double[length];
+        this.booleans = new boolean[length];
+        this.objects = new Object[length];
+
+        int stored = 0;
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            Object value = entry.getValue();
+            if (value == null) {
+                continue;
+            }
+
+            int index = layout.slots.get(entry.getKey());
+            if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+                types[index] = INTEGER;
+                integers[index] = ((Number) value).longValue();
+                decimals[index] = integers[index];
+            } else if (value instanceof Number) {
+                types[index] = DECIMAL;
+                decimals[index] = ((Number) value).doubleValue();
+                integers[index] = (long) decimals[index];
+            } else if (value instanceof Boolean) {
+                types[index] = BOOLEAN;
+                booleans[index] = (Boolean) value;
+            } else {
+                types[index] = OBJECT;
+            }
+            objects[index] = value instanceof List ? Collections.unmodifiableList(new ArrayList<>((List<?>) value)) : value;
+            stored++;
+        }
+        this.size = stored;
+    }
+
+    /**
+     * Returns whether this snapshot holds a value at the given path.
+     *
+     * @param path the handle of the path
+     * @return {@code true} if a value is present; {@code false} otherwise
+     */
+    public boolean contains(ConfigPath path) {
+        return type(slot(path)) != NONE;
+    }
+
+    /**
+     * Returns the value at the given path as an integer.
+     *
+     * @param path         the handle of the path
+     * @param defaultValue the value returned if the path holds no number
+     * @return the value, with decimals truncated, or the default value
+     */
+    public int getInt(ConfigPath path, int defaultValue) {
+        int index = slot(path);
+        byte type = type(index);
+        return type == INTEGER || type == DECIMAL ? (int) integers[index] : defaultValue;
+    }
+
+    /**
+     * Returns the value at the given path as a long integer.
+     *
+     * @param path         the handle of the path
+     * @param defaultValue the value returned if the path holds no number
+     * @return the value, with decimals truncated, or the default value
+     */
+    public long getLong(ConfigPath path, long defaultValue) {
+        int index = slot(path);
+        byte type = type(index);
+        return type == INTEGER || type == DECIMAL ? integers[index] : defaultValue;
+    }
+
+    /**
+     * Returns the value at the given path as a decimal.
+     *
+     * @param path         the handle of the path
+     * @param defaultValue the value returned if the path holds no number
+     * @return the value, or the default value
+     */
+    public double getDouble(ConfigPath path, double defaultValue) {
+        int index = slot(path);
+        byte type = type(index);
+        return type == INTEGER || type == DECIMAL ? decimals[index] : defaultValue;
+    }
+
+    /**
+     * Returns the value at the given path as a boolean.
+     *
+     * @param path         the handle of the path
+     * @param defaultValue the value returned if the path holds no boolean
+     * @return the value, or the default value
+     */
+    public boolean getBoolean(ConfigPath path, boolean defaultValue) {
+        int index = slot(path);
+        return type(index) == BOOLEAN ? booleans[index] : defaultValue;
+    }
+
+    /**
+     * Returns the value at the given path as a string.
+     *
+     * @param path         the handle of the path
+     * @param defaultValue the value returned if the path holds no value
+     * @return the string form of the value, or the default value
+     */
+    public String getString(ConfigPath path, String defaultValue) {
+        Object value = get(path);
+        return value != null ? value.toString() : defaultValue;
+    }
+
+    /**
+     * Returns the value at the given path as a list of strings.
+     *
+     * @param path         the handle of the path
+     * @param defaultValue the value returned if the path holds no list
+     * @return an unmodifiable list of the string forms of the list's elements, or the default value
+     */
+    @SuppressWarnings("unchecked")
+    public List<String> getStringList(ConfigPath path, List<String> defaultValue) {
+        Object value = get(path);
+        if (!(value instanceof List)) {
+            return defaultValue;
+        }
+
+        List<?> list = (List<?>) value;
+        for (Object element : list) {
+            if (!(element instanceof String)) {
+                List<String> strings = new ArrayList<>(list.size());
+                for (Object item : list) {
+                    strings.add(String.valueOf(item));
+                }
+                return Collections.unmodifiableList(strings);
+            }
+        }
+        return (List<String>) list;
+    }
+
+    /**
+     * Returns the raw value at the given path.
+     * <p>
+     * Lists are returned as unmodifiable copies.
+     *
+     * @param path the handle of the path
+     * @return the value, or {@code null} if the path holds no value
+     */
+    public Object get(ConfigPath path) {
+        int index = slot(path);
+        return type(index) != NONE ? objects[index] : null;
+    }
+
+    /**
+     * Returns the number of values in this snapshot.
+     *
+     * @return the number of values
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the slot of a path in this snapshot's layout, looking it up only if the handle was last used with
+     * another layout.
+     *
+     * @return the slot, or {@code -1} if the layout has no such key
+     */
+    private int slot(ConfigPath path) {
+        Slot cached = path.slot;
+        if (cached == null || cached.layout != layout) {
+            Integer index = layout.slots.get(path.getPath());
+            cached = new Slot(layout, index != null ? index : -1);
+            path.slot = cached;
+        }
+        return cached.index;
+    }
+
+    private byte type(int index) {
+        return index >= 0 ? types[index] : NONE;
+    }
+
+    /**
+     * The slots assigned to the keys of a configuration, shared by its snapshots while its keys stay the same.
+     */
+    private static final class Layout {
+
+        private final Map<String, Integer> slots;
+
+        private Layout(Set<String> paths) {
+            this.slots = new HashMap<>((int) (paths.size() / 0.75f) + 1);
+            for (String path : paths) {
+                slots.put(path, slots.size());
+            }
+        }
+    }
+
+    /**
+     * The slot of a {@link ConfigPath} in the layout it was last looked up in.
+     */
+    static final class Slot {
+
+        private final Layout layout;
+        private final int index;
+
+        private Slot(Layout layout, int index) {
+            this.layout = layout;
+            this.index = index;
+        }
+    }
+}
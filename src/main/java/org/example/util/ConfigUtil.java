@@ -2,14 +2,42 @@ package org.example.util;
 
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.util.config.Configuration;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
-import java.util.logging.Logger;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
-import static org.bukkit.Bukkit.getServer;
+import static org.example.util.LoggerUtil.logInfo;
+import static org.example.util.LoggerUtil.logSevere;
+import static org.example.util.LoggerUtil.logWarning;
 
 /**
  * Utility class for managing plugin configuration files.
@@ -18,13 +46,40 @@ import static org.bukkit.Bukkit.getServer;
  * configuration files. It automatically handles the creation of parent directories and copies default configuration
  * files from the plugin's resources if they do not exist.
  * <p>
+ * After every load, the configuration is also published as an immutable {@link ConfigSnapshot}, which can be read
+ * from any thread without locking through precompiled {@link ConfigPath} handles, and is replaced atomically on reload.
+ * <p>
+ * With {@link #startWatching()}, the file is reloaded automatically when it is edited, and listeners registered with
+ * {@link #addChangeListener(String, ChangeListener)} are notified of the keys whose values changed.
+ * <p>
+ * Saves can also be made in the background with {@link #saveConfigAsync()}, which coalesces repeated saves into one
+ * write of the file through a temporary file and an atomic rename.
+ * <p>
+ * With {@link #setParseCacheEnabled(boolean)}, the parsed values are also kept in a binary cache file, which is
+ * loaded instead of parsing the YAML file as long as the file has not changed.
+ * <p>
  * <b>Note:</b> This class allows for flexible management of multiple configuration files, specified by their file name.
  */
 public class ConfigUtil extends Configuration {
 
     private final File configFile;
     private final String pluginName;
-    private static final Logger logger = getServer().getLogger();
+    private final JavaPlugin plugin;
+    private volatile ConfigSnapshot snapshot = ConfigSnapshot.EMPTY;
+    private volatile Map<String, Object> loadedValues = Collections.emptyMap();
+    private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private volatile boolean watching;
+    private volatile long writtenModified = -1;
+    private volatile long writtenSize = -1;
+    private volatile boolean parseCache;
+    private final AtomicReference<Reload> pendingReload = new AtomicReference<>();
+
+    private static final ScheduledThreadPoolExecutor saveExecutor = createSaveExecutor();
+    private static final Set<ConfigUtil> pendingConfigs = ConcurrentHashMap.newKeySet();
+    private final Object saveLock = new Object();
+    private Map<String, Object> pendingSave;
+    private ScheduledFuture<?> scheduledSave;
+    private long saveDelayMillis = 1000;
 
     /**
      * Constructs a new instance of {@code ConfigUtil}.
@@ -39,6 +94,7 @@ public class ConfigUtil extends Configuration {
         super(new File(plugin.getDataFolder(), fileName));
         this.configFile = new File(plugin.getDataFolder(), fileName);
         this.pluginName = plugin.getDescription().getName();
+        this.plugin = plugin;
     }
 
     /**
@@ -46,25 +102,163 @@ public class ConfigUtil extends Configuration {
      * <ul>
      * <li>Creates parent directories if they do not exist.</li>
      * <li>Copies the default configuration file from the plugin's resources if the configuration file does not exist.</li>
-     * <li>Attempts to load the configuration by calling the superclass' {@code load()} method.</li>
-     * <li>Logs errors if the configuration file cannot be loaded.</li>
+     * <li>Loads the values from the parse cache if it is enabled and matches the file.</li>
+     * <li>Otherwise parses the YAML file, and refreshes the parse cache if it is enabled.</li>
+     * <li>Logs errors if the configuration file cannot be read or parsed.</li>
+     * <li>Publishes a new {@link ConfigSnapshot} of the loaded configuration.</li>
      * </ul>
      * <p>
-     * This method ensures the configuration file is properly loaded and accessible.
+     * This method ensures the configuration file is properly loaded and accessible. The file is parsed here rather than
+     * by the superclass, which replaces the values with an empty configuration when parsing fails. If loading fails,
+     * the previous values stay in place, the previous snapshot stays published, and the parse cache is left untouched.
      */
     @Override
     public void load() {
+        if (!MetricsUtil.isEnabled()) {
+            loadFile();
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            loadFile();
+        } finally {
+            MetricsUtil.CONFIG_LOAD.record(start);
+        }
+    }
+
+    /**
+     * Loads the configuration as described by {@link #load()}, without recording metrics.
+     */
+    private void loadFile() {
         createParentDirectories();
 
         if (!configFile.exists()) {
             copyDefaultConfig();
         }
 
+        if (parseCache && loadFromCache()) {
+            publishSnapshot();
+            return;
+        }
+
         try {
-            super.load();
-        } catch (Exception e) {
-            logger.severe(String.format("[%s] Failed to load config '%s': %s", pluginName, configFile.getName(), e.getMessage()));
+            root = parseFile();
+        } catch (IOException e) {
+            logSevere("[%s] Failed to load config '%s': %s", pluginName, configFile.getName(), e.getMessage());
+            return;
+        }
+
+        publishSnapshot();
+        if (parseCache) {
+            writeCache();
+        }
+    }
+
+    /**
+     * Enables or disables the binary parse cache of this configuration.
+     * <p>
+     * While enabled, every successful parse of the YAML file writes its values to a hidden {@code .<name>.cache} file
+     * next to it, keyed by the file's size, modification time and checksum. The next {@link #load()} memory-maps that
+     * cache and uses it directly if the key still matches, which skips YAML parsing at startup. A changed file, a
+     * missing or unreadable cache, or values of a type the cache cannot hold fall back to parsing the file.
+     * <p>
+     * Must be called before {@link #load()} to take effect on the first load. Disabling the cache deletes its file.
+     *
+     * @param enabled {@code true} to use the parse cache; {@code false} to always parse the YAML file
+     */
+    public void setParseCacheEnabled(boolean enabled) {
+        parseCache = enabled;
+        if (!enabled) {
+            try {
+                Files.deleteIfExists(ConfigCache.cacheFile(configFile).toPath());
+            } catch (IOException e) {
+                logWarning("[%s] Failed to delete parse cache of config '%s': %s", pluginName, configFile.getName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Replaces the configuration's values with those of the parse cache, if it matches the file.
+     *
+     * @return {@code true} if the values were loaded from the cache; {@code false} if the file has to be parsed
+     */
+    private boolean loadFromCache() {
+        try {
+            Map<Object, Object> cached = ConfigCache.read(configFile);
+            if (cached == null) {
+                return false;
+            }
+            root = castRoot(cached);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Parses the configuration file into a new root map, for both loads and reloads.
+     *
+     * @return the root map, empty if the file is empty
+     * @throws IOException if the file cannot be read or parsed, or its root is not a map
+     */
+    private Map<String, Object> parseFile() throws IOException {
+        Object parsed;
+        try (Reader reader = new InputStreamReader(Files.newInputStream(configFile.toPath()), StandardCharsets.UTF_8)) {
+            parsed = new Yaml(new SafeConstructor()).load(reader);
+        } catch (RuntimeException e) {
+            throw new IOException(e.getMessage(), e);
         }
+
+        if (parsed == null) {
+            return new HashMap<>();
+        }
+        if (!(parsed instanceof Map)) {
+            throw new IOException("the root is not a map");
+        }
+        return castRoot((Map<?, ?>) parsed);
+    }
+
+    /**
+     * Writes the configuration's current values to the parse cache, or deletes the cache if they cannot be cached.
+     */
+    private void writeCache() {
+        try {
+            if (!ConfigCache.write(configFile, root)) {
+                Files.deleteIfExists(ConfigCache.cacheFile(configFile).toPath());
+            }
+        } catch (IOException e) {
+            logWarning("[%s] Failed to write parse cache of config '%s': %s", pluginName, configFile.getName(), e.getMessage());
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Map<String, Object> castRoot(Map map) {
+        return map;
+    }
+
+    /**
+     * Returns the most recently published snapshot of the configuration.
+     * <p>
+     * The snapshot is immutable and safe to read from any thread. Callers on hot paths should fetch it once per
+     * operation rather than once per value, so that all values come from the same load.
+     *
+     * @return the current snapshot, or {@link ConfigSnapshot#EMPTY} if the configuration has not been loaded yet
+     */
+    public ConfigSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Publishes a new snapshot of the configuration's current values.
+     * <p>
+     * This happens automatically after {@link #load()}. Call this method after changing values with
+     * {@link #setProperty(String, Object)} to make the changes visible to snapshot readers.
+     */
+    public void publishSnapshot() {
+        Map<String, Object> values = getAll();
+        loadedValues = values != null ? Collections.unmodifiableMap(new HashMap<>(values)) : Collections.emptyMap();
+        snapshot = new ConfigSnapshot(loadedValues, snapshot);
     }
 
     /**
@@ -77,7 +271,7 @@ public class ConfigUtil extends Configuration {
         try {
             Files.createDirectories(configFile.getParentFile().toPath());
         } catch (IOException e) {
-            logger.severe(String.format("[%s] Failed to create default config directory: %s", pluginName, e.getMessage()));
+            logSevere("[%s] Failed to create default config directory: %s", pluginName, e.getMessage());
         }
     }
 
@@ -93,14 +287,14 @@ public class ConfigUtil extends Configuration {
 
         try (InputStream input = getClass().getResourceAsStream(resourcePath)) {
             if (input == null) {
-                logger.severe(String.format("[%s] Default config '%s' wasn't found.", pluginName, configFile.getName()));
+                logSevere("[%s] Default config '%s' wasn't found.", pluginName, configFile.getName());
                 return;
             }
 
             Files.copy(input, configFile.toPath());
-            logger.info(String.format("[%s] Default config '%s' created successfully.", pluginName, configFile.getName()));
+            logInfo("[%s] Default config '%s' created successfully.", pluginName, configFile.getName());
         } catch (IOException e) {
-            logger.severe(String.format("[%s] Failed to create default config '%s': %s", pluginName, configFile.getName(), e.getMessage()));
+            logSevere("[%s] Failed to create default config '%s': %s", pluginName, configFile.getName(), e.getMessage());
         }
     }
 
@@ -113,9 +307,9 @@ public class ConfigUtil extends Configuration {
     public void loadConfig() {
         try {
             this.load();
-            logger.info(String.format("[%s] Config '%s' loaded successfully.", pluginName, configFile.getName()));
+            logInfo("[%s] Config '%s' loaded successfully.", pluginName, configFile.getName());
         } catch (Exception e) {
-            logger.severe(String.format("[%s] Failed to load config '%s': %s", pluginName, configFile.getName(), e.getMessage()));
+            logSevere("[%s] Failed to load config '%s': %s", pluginName, configFile.getName(), e.getMessage());
         }
     }
 
@@ -123,14 +317,437 @@ public class ConfigUtil extends Configuration {
      * Saves the configuration file and logs the result.
      * <p>
      * Attempts to save the configuration using the superclass' {@code save()} method and logs a message indicating
-     * whether the configuration was saved successfully.
+     * whether the configuration was saved successfully. A pending background save is discarded, as it holds older
+     * values, and a background write already in progress finishes before the file is written.
      */
     public void saveConfig() {
+        if (!MetricsUtil.isEnabled()) {
+            saveFile();
+            return;
+        }
+
+        long start = System.nanoTime();
         try {
-            this.save();
-            logger.info(String.format("[%s] Config '%s' saved successfully.", pluginName, configFile.getName()));
-        } catch (Exception e) {
-            logger.severe(String.format("[%s] Failed to save config '%s': %s", pluginName, configFile.getName(), e.getMessage()));
+            saveFile();
+        } finally {
+            MetricsUtil.CONFIG_SAVE.record(start);
+        }
+    }
+
+    /**
+     * Saves the configuration as described by {@link #saveConfig()}, without recording metrics.
+     */
+    private void saveFile() {
+        synchronized (configFile) {
+            synchronized (saveLock) {
+                clearPendingSave();
+                if (scheduledSave != null) {
+                    scheduledSave.cancel(false);
+                    scheduledSave = null;
+                }
+            }
+
+            try {
+                this.save();
+                recordWrite();
+                logInfo("[%s] Config '%s' saved successfully.", pluginName, configFile.getName());
+            } catch (Exception e) {
+                logSevere("[%s] Failed to save config '%s': %s", pluginName, configFile.getName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Sets how long {@link #saveConfigAsync()} waits after the first requested save before writing the file.
+     * <p>
+     * The default is one second.
+     *
+     * @param delayMillis the time in milliseconds during which repeated saves are coalesced into one write
+     */
+    public void setSaveDelay(long delayMillis) {
+        synchronized (saveLock) {
+            this.saveDelayMillis = Math.max(0, delayMillis);
+        }
+    }
+
+    /**
+     * Saves the configuration file in the background.
+     * <p>
+     * The current values are copied on the calling thread, so they can be changed again right away, and the file is
+     * written on a background thread once the save delay has passed since the first save requested after the last
+     * write. Further calls within that time only replace the copy to be written, so the file is written at most once
+     * per save delay, with the latest values, however often saves are requested. The file is written to a temporary
+     * file first and then renamed over the configuration file, so it is never left truncated.
+     * <p>
+     * Call {@link #flushPendingSave()} or {@link #flushAllPendingSaves()} when the plugin is disabled to write any
+     * pending save before the server stops.
+     */
+    public void saveConfigAsync() {
+        Map<String, Object> copy = deepCopy(root);
+        synchronized (saveLock) {
+            pendingSave = copy;
+            pendingConfigs.add(this);
+            if (scheduledSave == null) {
+                scheduledSave = saveExecutor.schedule(this::writePendingSave, saveDelayMillis, TimeUnit.MILLISECONDS);
+            }
         }
     }
+
+    /**
+     * Writes any pending background save right away on the calling thread.
+     * <p>
+     * Waits for a background write already in progress to finish, so the file is complete when this method returns.
+     * Should be called from the plugin's {@code onDisable} method for every configuration saved with
+     * {@link #saveConfigAsync()}, or through {@link #flushAllPendingSaves()}.
+     */
+    public void flushPendingSave() {
+        synchronized (saveLock) {
+            if (scheduledSave != null) {
+                scheduledSave.cancel(false);
+            }
+        }
+        writePendingSave();
+    }
+
+    /**
+     * Writes any pending background saves of all configurations of this plugin right away on the calling thread.
+     * <p>
+     * Calls {@link #flushPendingSave()} for every configuration with a pending save. Should be called from the
+     * plugin's {@code onDisable} method.
+     */
+    public static void flushAllPendingSaves() {
+        for (ConfigUtil config : pendingConfigs.toArray(new ConfigUtil[0])) {
+            config.flushPendingSave();
+        }
+    }
+
+    /**
+     * Writes the pending copy of the configuration, if any.
+     * <p>
+     * The copy is taken while holding the file's lock, which {@link #saveFile()} holds as well, so writes of the file
+     * never overlap, and a copy taken before a synchronous save cannot be written after it.
+     */
+    private void writePendingSave() {
+        synchronized (configFile) {
+            Map<String, Object> values;
+            synchronized (saveLock) {
+                values = pendingSave;
+                clearPendingSave();
+                scheduledSave = null;
+            }
+            if (values == null) {
+                return;
+            }
+
+            long start = MetricsUtil.isEnabled() ? System.nanoTime() : 0;
+            try {
+                writeAtomically(values);
+                recordWrite();
+                logInfo("[%s] Config '%s' saved successfully.", pluginName, configFile.getName());
+            } catch (IOException e) {
+                logSevere("[%s] Failed to save config '%s': %s", pluginName, configFile.getName(), e.getMessage());
+            }
+            if (start != 0) {
+                MetricsUtil.CONFIG_SAVE.record(start);
+            }
+        }
+    }
+
+    /**
+     * Drops the pending copy of the configuration. Must be called while holding the save lock.
+     */
+    private void clearPendingSave() {
+        pendingSave = null;
+        pendingConfigs.remove(this);
+    }
+
+    /**
+     * Writes values to a temporary file next to the configuration file, then renames it over the configuration file.
+     *
+     * @param values the values to write
+     * @throws IOException if the file cannot be written or renamed
+     */
+    private void writeAtomically(Map<String, Object> values) throws IOException {
+        DumperOptions options = new DumperOptions();
+        options.setIndent(4);
+        options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+
+        createParentDirectories();
+        Path target = configFile.toPath();
+        Path temp = target.resolveSibling(configFile.getName() + ".tmp");
+        try (Writer writer = new OutputStreamWriter(Files.newOutputStream(temp), StandardCharsets.UTF_8)) {
+            new Yaml(options).dump(values, writer);
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Copies nested maps and lists so that the copy is not affected by later changes to the configuration.
+     *
+     * @param map the map to copy
+     * @return the copy
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> deepCopy(Map<String, Object> map) {
+        Map<String, Object> copy = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            copy.put(entry.getKey(), deepCopyValue(entry.getValue()));
+        }
+        return copy;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object deepCopyValue(Object value) {
+        if (value instanceof Map) {
+            return deepCopy((Map<String, Object>) value);
+        }
+        if (value instanceof List) {
+            List<Object> copy = new ArrayList<>();
+            for (Object element : (List<Object>) value) {
+                copy.add(deepCopyValue(element));
+            }
+            return copy;
+        }
+        return value;
+    }
+
+    /**
+     * Starts reloading the configuration automatically when its file is edited.
+     * <p>
+     * The plugin's data folder is watched for changes to the file. When it changes, the file is parsed on a background
+     * thread, and its values are compared with the current ones on the main server thread. If any differ, the new
+     * values replace the current ones, a new {@link ConfigSnapshot} is published, and the listeners registered for the
+     * changed keys are notified. Edits made before the main thread gets to them are applied together. Writes made by this class itself are recognized and ignored, as are edits that
+     * leave every value unchanged. A file that cannot be parsed is reported and leaves the current values in place.
+     */
+    public void startWatching() {
+        if (watching) {
+            return;
+        }
+
+        try {
+            createParentDirectories();
+            ConfigWatcher.watch(this, configFile.toPath());
+            watching = true;
+        } catch (IOException e) {
+            logSevere("[%s] Failed to watch config '%s': %s", pluginName, configFile.getName(), e.getMessage());
+        }
+    }
+
+    /**
+     * Stops reloading the configuration automatically.
+     * <p>
+     * Should be called from the plugin's {@code onDisable} method for every configuration being watched.
+     */
+    public void stopWatching() {
+        if (watching) {
+            watching = false;
+            ConfigWatcher.unwatch(this, configFile.toPath());
+        }
+    }
+
+    /**
+     * Registers a listener for changes to keys detected while {@link #startWatching() watching} the file.
+     * <p>
+     * The listener is called on the main server thread once for every changed key that equals the given path or lies
+     * beneath it, after the new values have been applied. An empty path matches every key.
+     *
+     * @param path     the key path to listen to, such as {@code "settings"} or {@code "settings.max-homes"}
+     * @param listener the listener to notify
+     */
+    public void addChangeListener(String path, ChangeListener listener) {
+        subscriptions.add(new Subscription(path, listener));
+    }
+
+    /**
+     * Removes a listener from every path it was registered for.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeChangeListener(ChangeListener listener) {
+        subscriptions.removeIf(subscription -> subscription.listener == listener);
+    }
+
+    /**
+     * Parses the file after it changed on disk and schedules the parsed values to be applied on the main thread.
+     * <p>
+     * Called by {@link ConfigWatcher} on its own thread. Only the latest parse is kept, so that edits arriving before
+     * the main thread gets to them are applied once, in the order they were made.
+     */
+    void reloadFromDisk() {
+        if (!watching || !configFile.isFile() || isOwnWrite()) {
+            return;
+        }
+
+        Map<String, Object> newRoot;
+        try {
+            newRoot = parseFile();
+        } catch (IOException e) {
+            logSevere("[%s] Failed to reload config '%s': %s", pluginName, configFile.getName(), e.getMessage());
+            return;
+        }
+
+        Map<String, Object> newValues = new HashMap<>();
+        flatten("", newRoot, newValues);
+
+        Reload reload = new Reload(newRoot, newValues);
+        if (pendingReload.getAndSet(reload) == null
+                && plugin.getServer().getScheduler().scheduleSyncDelayedTask(plugin, this::applyReload) == -1) {
+            pendingReload.compareAndSet(reload, null);
+        }
+    }
+
+    /**
+     * Replaces the current values with the latest reloaded ones and notifies listeners of the changed keys.
+     * <p>
+     * The changes are determined here, against the values current on the main thread, so that listeners always
+     * receive the value they last saw as the old value.
+     */
+    private void applyReload() {
+        Reload reload = pendingReload.getAndSet(null);
+        if (reload == null) {
+            return;
+        }
+
+        Map<String, Object> oldValues = loadedValues;
+        Map<String, Object> newValues = reload.values;
+        Set<String> changed = new HashSet<>();
+        for (Map.Entry<String, Object> entry : newValues.entrySet()) {
+            if (!Objects.equals(entry.getValue(), oldValues.get(entry.getKey()))) {
+                changed.add(entry.getKey());
+            }
+        }
+        for (String key : oldValues.keySet()) {
+            if (!newValues.containsKey(key)) {
+                changed.add(key);
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        root = reload.root;
+        loadedValues = Collections.unmodifiableMap(newValues);
+        snapshot = new ConfigSnapshot(loadedValues, snapshot);
+        logInfo("[%s] Config '%s' reloaded, %d keys changed.", pluginName, configFile.getName(), changed.size());
+
+        for (String key : changed) {
+            for (Subscription subscription : subscriptions) {
+                if (subscription.matches(key)) {
+                    try {
+                        subscription.listener.onChange(key, oldValues.get(key), newValues.get(key));
+                    } catch (RuntimeException e) {
+                        logSevere("[%s] Config change listener for '%s' failed: %s", pluginName, key, e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Remembers the size and modification time of the file after this class wrote it.
+     */
+    private void recordWrite() {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(configFile.toPath(), BasicFileAttributes.class);
+            writtenModified = attributes.lastModifiedTime().toMillis();
+            writtenSize = attributes.size();
+        } catch (IOException e) {
+            writtenModified = -1;
+        }
+    }
+
+    /**
+     * Returns whether the file is still as this class last wrote it.
+     */
+    private boolean isOwnWrite() {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(configFile.toPath(), BasicFileAttributes.class);
+            return attributes.lastModifiedTime().toMillis() == writtenModified && attributes.size() == writtenSize;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Flattens nested maps into dot-separated paths, the same way {@link #getAll()} does.
+     */
+    private static void flatten(String prefix, Map<?, ?> map, Map<String, Object> values) {
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            String path = prefix + entry.getKey();
+            if (entry.getValue() instanceof Map) {
+                flatten(path + ".", (Map<?, ?>) entry.getValue(), values);
+            } else {
+                values.put(path, entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Listener for configuration keys whose values changed on disk.
+     */
+    public interface ChangeListener {
+
+        /**
+         * Called on the main server thread for a key whose value changed.
+         *
+         * @param path     the dot-separated path of the key
+         * @param oldValue the previous value, or {@code null} if the key was added
+         * @param newValue the new value, or {@code null} if the key was removed
+         */
+        void onChange(String path, Object oldValue, Object newValue);
+    }
+
+    /**
+     * A parsed file waiting to be applied on the main thread.
+     */
+    private static final class Reload {
+
+        private final Map<String, Object> root;
+        private final Map<String, Object> values;
+
+        private Reload(Map<String, Object> root, Map<String, Object> values) {
+            this.root = root;
+            this.values = values;
+        }
+    }
+
+    /**
+     * A listener registered for a key path.
+     */
+    private static final class Subscription {
+
+        private final String path;
+        private final ChangeListener listener;
+
+        private Subscription(String path, ChangeListener listener) {
+            this.path = path;
+            this.listener = listener;
+        }
+
+        private boolean matches(String key) {
+            return path.isEmpty() || key.equals(path) || (key.startsWith(path) && key.charAt(path.length()) == '.');
+        }
+    }
+
+    /**
+     * Creates the executor shared by all configurations for background saves, running a single daemon thread that
+     * exits while idle.
+     */
+    private static ScheduledThreadPoolExecutor createSaveExecutor() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "ConfigUtil-Save");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setKeepAliveTime(30, TimeUnit.SECONDS);
+        executor.allowCoreThreadTimeOut(true);
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
 }
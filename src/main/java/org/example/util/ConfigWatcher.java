@@ -0,0 +1,152 @@
+package org.example.util;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.example.util.LoggerUtil.logSevere;
+
+/**
+ * Shared file watcher for configurations with hot reload enabled.
+ * <p>
+ * A single {@link WatchService} and daemon thread watch the directories of all watched configurations. Events are
+ * coalesced for a short time, since editors often write a file in several steps, and each changed configuration is
+ * then reloaded on the watcher thread through {@link ConfigUtil#reloadFromDisk()}. The watcher stops once no
+ * configuration is watched anymore.
+ * <p>
+ * <b>Note:</b> Configurations are registered through {@link ConfigUtil#startWatching()}.
+ */
+final class ConfigWatcher {
+
+    private static final long COALESCE_MILLIS = 100;
+
+    private static ConfigWatcher instance;
+
+    private final WatchService service;
+    private final Map<Path, WatchKey> keys = new HashMap<>();
+    private final Map<Path, CopyOnWriteArrayList<ConfigUtil>> configs = new HashMap<>();
+
+    private ConfigWatcher() throws IOException {
+        this.service = FileSystems.getDefault().newWatchService();
+        Thread thread = new Thread(this::run, "ConfigUtil-Watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Starts watching the file of a configuration.
+     *
+     * @param config the configuration to reload when its file changes
+     * @param file   the configuration file
+     * @throws IOException if the file's directory cannot be watched
+     */
+    static synchronized void watch(ConfigUtil config, Path file) throws IOException {
+        if (instance == null) {
+            instance = new ConfigWatcher();
+        }
+        instance.add(config, file.toAbsolutePath());
+    }
+
+    /**
+     * Stops watching the file of a configuration.
+     *
+     * @param config the configuration to stop reloading
+     * @param file   the configuration file
+     */
+    static synchronized void unwatch(ConfigUtil config, Path file) {
+        if (instance != null && instance.remove(config, file.toAbsolutePath())) {
+            try {
+                instance.service.close();
+            } catch (IOException ignored) {
+                // The watcher thread exits either way.
+            }
+            instance = null;
+        }
+    }
+
+    private synchronized void add(ConfigUtil config, Path file) throws IOException {
+        Path directory = file.getParent();
+        if (!keys.containsKey(directory)) {
+            keys.put(directory, directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY));
+        }
+        CopyOnWriteArrayList<ConfigUtil> list = configs.computeIfAbsent(file, k -> new CopyOnWriteArrayList<>());
+        list.addIfAbsent(config);
+    }
+
+    /**
+     * @return {@code true} if no configuration is watched anymore
+     */
+    private synchronized boolean remove(ConfigUtil config, Path file) {
+        CopyOnWriteArrayList<ConfigUtil> list = configs.get(file);
+        if (list != null) {
+            list.remove(config);
+            if (list.isEmpty()) {
+                configs.remove(file);
+            }
+        }
+
+        Path directory = file.getParent();
+        boolean directoryUsed = configs.keySet().stream().anyMatch(path -> directory.equals(path.getParent()));
+        if (!directoryUsed) {
+            WatchKey key = keys.remove(directory);
+            if (key != null) {
+                key.cancel();
+            }
+        }
+        return configs.isEmpty();
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                Set<Path> changed = new LinkedHashSet<>();
+                collect(service.take(), changed);
+
+                WatchKey more;
+                while ((more = service.poll(COALESCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    collect(more, changed);
+                }
+
+                for (Path file : changed) {
+                    CopyOnWriteArrayList<ConfigUtil> list;
+                    synchronized (this) {
+                        list = configs.get(file);
+                    }
+                    if (list == null) {
+                        continue;
+                    }
+                    for (ConfigUtil config : list) {
+                        try {
+                            config.reloadFromDisk();
+                        } catch (RuntimeException e) {
+                            logSevere("Failed to reload config '%s': %s", file.getFileName(), e.getMessage());
+                        }
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // The watcher has been stopped.
+        }
+    }
+
+    private static void collect(WatchKey key, Set<Path> changed) {
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() != StandardWatchEventKinds.OVERFLOW) {
+                changed.add(directory.resolve((Path) event.context()).toAbsolutePath());
+            }
+        }
+        key.reset();
+    }
+}
@@ -0,0 +1,603 @@
+package org.example.util;
+
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+import static org.example.util.LoggerUtil.logSevere;
+import static org.example.util.LoggerUtil.logWarning;
+
+/**
+ * Embedded key-value store backed by a single append-only log file in the plugin's data folder.
+ * <p>
+ * Every {@link #put(String, byte[])} and {@link #remove(String)} appends one record to the end of the log, so a write
+ * never rewrites existing data regardless of how many keys the store holds. An in-memory hash index maps every key to
+ * the position of its latest value, and values are read from a memory-mapped view of the log without locking, or
+ * through the file channel for records appended since the view was last extended.
+ * <p>
+ * Each record is stored as {@code [int crc][int keyLength][int valueLength][UTF-8 key][value]}, where {@code crc} is
+ * the CRC-32 of everything after itself and a {@code valueLength} of {@code -1} marks a removed key. When the store is
+ * opened, the log is replayed from the start to rebuild the index. Replay stops at the first record that is incomplete
+ * or fails its checksum, which is what a crash during a write leaves behind, and the log is truncated there.
+ * <p>
+ * Overwritten values and removal markers are dead records. Once they make up more than the compaction threshold of the
+ * log, the live records are copied into a new log on a background thread, which then atomically replaces the old one.
+ * Writes continue while the copy is made, and records appended in the meantime are carried over before the swap.
+ * <p>
+ * <b>Note:</b> Writes are handed to the operating system immediately but only forced to disk by {@link #sync()} and
+ * {@link #close()}. The store should be closed from the plugin's {@code onDisable} method.
+ */
+public final class DataStore {
+
+    private static final int HEADER_BYTES = 3 * Integer.BYTES;
+    private static final int REMOVED = -1;
+    private static final long MIN_COMPACTION_BYTES = 64 * 1024;
+    private static final long MIN_REMAP_BYTES = 64 * 1024;
+
+    private static final ThreadPoolExecutor compactExecutor = createCompactExecutor();
+
+    private final File file;
+    private final String pluginName;
+    private final ConcurrentHashMap<String, Location> index = new ConcurrentHashMap<>();
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private final Object compactionDone = new Object();
+
+    private volatile Segment segment;
+    private long deadBytes;
+    private double compactionThreshold = 0.5;
+
+    /**
+     * Constructs a new data store for a file in the plugin's data folder.
+     * <p>
+     * The store must be opened with {@link #open()} before it is used.
+     *
+     * @param plugin   the plugin instance owning the store
+     * @param fileName the name of the log file (e.g., "players.db")
+     */
+    public DataStore(JavaPlugin plugin, String fileName) {
+        this.file = new File(plugin.getDataFolder(), fileName);
+        this.pluginName = plugin.getDescription().getName();
+    }
+
+    /**
+     * Opens the store, creating its file if it does not exist, and rebuilds the index by replaying the log.
+     * <p>
+     * Incomplete or corrupted records at the end of the log are discarded, and a warning is logged with the number of
+     * bytes removed.
+     *
+     * @throws IOException if the file cannot be opened or read
+     */
+    public synchronized void open() throws IOException {
+        if (segment != null) {
+            return;
+        }
+
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Could not create " + parent);
+        }
+
+        Segment opened = new Segment(FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        try {
+            long size = opened.channel.size();
+            index.clear();
+            deadBytes = 0;
+            long end = replay(opened, 0, size);
+            if (end < size) {
+                opened.channel.truncate(end);
+                opened.channel.force(true);
+                logWarning("[%s] Recovered data store '%s': discarded %d bytes of incomplete records.", pluginName, file.getName(), size - end);
+            }
+            opened.end = end;
+            segment = opened;
+        } catch (IOException | RuntimeException e) {
+            index.clear();
+            opened.channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the value stored for a key.
+     *
+     * @param key the key
+     * @return a copy of the value, or {@code null} if the key is not present
+     * @throws IOException if the value cannot be read
+     */
+    public byte[] get(String key) throws IOException {
+        Location location = index.get(key);
+        if (location == null) {
+            return null;
+        }
+
+        byte[] value = new byte[location.valueLength];
+        location.segment.read(location.offset + location.recordLength - location.valueLength, value);
+        return value;
+    }
+
+    /**
+     * Returns whether a value is stored for a key.
+     *
+     * @param key the key
+     * @return {@code true} if the key is present; {@code false} otherwise
+     */
+    public boolean contains(String key) {
+        return index.containsKey(key);
+    }
+
+    /**
+     * Stores a value for a key, replacing any previous value.
+     *
+     * @param key   the key
+     * @param value the value
+     * @throws IOException if the record cannot be appended to the log
+     */
+    public void put(String key, byte[] value) throws IOException {
+        append(key, value);
+    }
+
+    /**
+     * Removes the value stored for a key.
+     *
+     * @param key the key
+     * @return {@code true} if a value was removed; {@code false} if the key was not present
+     * @throws IOException if the removal cannot be appended to the log
+     */
+    public boolean remove(String key) throws IOException {
+        return index.containsKey(key) && append(key, null);
+    }
+
+    /**
+     * Returns the keys currently present in the store.
+     *
+     * @return an unmodifiable view of the keys, which reflects later writes
+     */
+    public Set<String> keys() {
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    /**
+     * Returns the number of keys in the store.
+     *
+     * @return the number of keys
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Sets the share of dead records in the log above which it is compacted in the background.
+     * <p>
+     * Logs smaller than 64 KiB are never compacted automatically.
+     *
+     * @param deadRatio the ratio between {@code 0} and {@code 1}, or {@code 1} to only compact through {@link #compact()}
+     */
+    public synchronized void setCompactionThreshold(double deadRatio) {
+        if (deadRatio <= 0 || deadRatio > 1) {
+            throw new IllegalArgumentException("Compaction threshold must be greater than 0 and at most 1.");
+        }
+        compactionThreshold = deadRatio;
+    }
+
+    /**
+     * Returns the share of the log taken up by overwritten values and removal markers.
+     *
+     * @return the dead ratio between {@code 0} and {@code 1}
+     */
+    public synchronized double getDeadRatio() {
+        Segment current = segment;
+        return current == null || current.end == 0 ? 0 : (double) deadBytes / current.end;
+    }
+
+    /**
+     * Forces every record written so far to disk.
+     *
+     * @throws IOException if the log cannot be synchronized
+     */
+    public void sync() throws IOException {
+        Segment current = segment;
+        if (current != null) {
+            current.channel.force(false);
+        }
+    }
+
+    /**
+     * Rewrites the log with only the latest value of every key, on the calling thread.
+     * <p>
+     * Does nothing if a compaction is already running.
+     *
+     * @throws IOException if the compacted log cannot be written
+     */
+    public void compact() throws IOException {
+        if (!compacting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            compactLog();
+        } finally {
+            finishCompaction();
+        }
+    }
+
+    /**
+     * Forces the log to disk and closes the store.
+     * <p>
+     * Waits for a running compaction to finish. The store can be opened again with {@link #open()}.
+     */
+    public void close() {
+        awaitCompaction();
+        try {
+            synchronized (this) {
+                Segment current = segment;
+                if (current == null) {
+                    return;
+                }
+                segment = null;
+                index.clear();
+                try {
+                    current.channel.force(true);
+                    current.channel.close();
+                } catch (IOException e) {
+                    logSevere("[%s] Could not close data store '%s': %s", pluginName, file.getName(), e.getMessage());
+                }
+            }
+        } finally {
+            finishCompaction();
+        }
+    }
+
+    /**
+     * Waits until no compaction is running and claims the compaction flag, so that none can start.
+     */
+    private void awaitCompaction() {
+        boolean interrupted = false;
+        synchronized (compactionDone) {
+            while (!compacting.compareAndSet(false, true)) {
+                try {
+                    compactionDone.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Releases the compaction flag and wakes up a waiting {@link #close()}.
+     */
+    private void finishCompaction() {
+        synchronized (compactionDone) {
+            compacting.set(false);
+            compactionDone.notifyAll();
+        }
+    }
+
+    private synchronized boolean append(String key, byte[] value) throws IOException {
+        Segment current = segment;
+        if (current == null) {
+            throw new IOException("Data store '" + file.getName() + "' is not open.");
+        }
+
+        ByteBuffer record = encode(key, value);
+        int recordLength = record.remaining();
+        long offset = current.end;
+        while (record.hasRemaining()) {
+            current.channel.write(record, offset + record.position());
+        }
+        current.end += recordLength;
+
+        Location previous = value != null
+                ? index.put(key, new Location(current, offset, recordLength, value.length))
+                : index.remove(key);
+        if (previous != null) {
+            deadBytes += previous.recordLength;
+        }
+        if (value == null) {
+            deadBytes += recordLength;
+        }
+
+        scheduleCompaction(current);
+        return true;
+    }
+
+    private void scheduleCompaction(Segment current) {
+        if (current.end < MIN_COMPACTION_BYTES || deadBytes <= compactionThreshold * current.end || !compacting.compareAndSet(false, true)) {
+            return;
+        }
+
+        compactExecutor.execute(() -> {
+            try {
+                compactLog();
+            } catch (IOException e) {
+                logSevere("[%s] Could not compact data store '%s': %s", pluginName, file.getName(), e.getMessage());
+            } finally {
+                finishCompaction();
+            }
+        });
+    }
+
+    private void compactLog() throws IOException {
+        Segment source;
+        long copiedEnd;
+        List<String> keys;
+        List<Location> locations;
+        synchronized (this) {
+            source = segment;
+            if (source == null) {
+                return;
+            }
+            copiedEnd = source.end;
+            keys = new ArrayList<>(index.size());
+            locations = new ArrayList<>(index.size());
+            for (Map.Entry<String, Location> entry : index.entrySet()) {
+                keys.add(entry.getKey());
+                locations.add(entry.getValue());
+            }
+        }
+
+        // Live records are copied without holding the lock, since records before copiedEnd never change
+        Path target = file.toPath();
+        Path temp = target.resolveSibling(file.getName() + ".compact");
+        Segment compacted = new Segment(FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE));
+        boolean swapped = false;
+        try {
+            List<Location> moved = new ArrayList<>(locations.size());
+            long position = 0;
+            for (Location location : locations) {
+                copy(source, location.offset, location.recordLength, compacted, position);
+                moved.add(new Location(compacted, position, location.recordLength, location.valueLength));
+                position += location.recordLength;
+            }
+
+            synchronized (this) {
+                if (segment != source) {
+                    return;
+                }
+
+                // Records appended during the copy are carried over and replayed on top of the copied ones
+                long tailLength = source.end - copiedEnd;
+                copy(source, copiedEnd, tailLength, compacted, position);
+                compacted.channel.force(true);
+
+                for (int i = 0; i < keys.size(); i++) {
+                    index.replace(keys.get(i), locations.get(i), moved.get(i));
+                }
+                compacted.end = replay(compacted, position, position + tailLength);
+
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+                segment = compacted;
+                swapped = true;
+
+                long liveBytes = 0;
+                for (Location location : index.values()) {
+                    liveBytes += location.recordLength;
+                }
+                deadBytes = compacted.end - liveBytes;
+
+                // Readers may still hold locations in the old log, so it stays mapped after being closed
+                source.mapAll();
+                source.channel.close();
+            }
+        } finally {
+            if (!swapped) {
+                compacted.channel.close();
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    /**
+     * Replays the records of a segment between two positions into the index.
+     *
+     * @return the position after the last valid record
+     */
+    private long replay(Segment source, long from, long to) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] header = new byte[HEADER_BYTES];
+        ByteBuffer headerBuffer = ByteBuffer.wrap(header);
+        long position = from;
+        while (to - position >= HEADER_BYTES) {
+            source.read(position, header);
+            headerBuffer.clear();
+            int checksum = headerBuffer.getInt();
+            int keyLength = headerBuffer.getInt();
+            int valueLength = headerBuffer.getInt();
+            long recordLength = (long) HEADER_BYTES + keyLength + Math.max(0, valueLength);
+            if (keyLength < 0 || valueLength < REMOVED || recordLength > to - position) {
+                break;
+            }
+
+            byte[] body = new byte[(int) recordLength - Integer.BYTES];
+            source.read(position + Integer.BYTES, body);
+            crc.reset();
+            crc.update(body);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+
+            String key = new String(body, 2 * Integer.BYTES, keyLength, StandardCharsets.UTF_8);
+            Location previous = valueLength == REMOVED
+                    ? index.remove(key)
+                    : index.put(key, new Location(source, position, (int) recordLength, valueLength));
+            if (previous != null) {
+                deadBytes += previous.recordLength;
+            }
+            if (valueLength == REMOVED) {
+                deadBytes += recordLength;
+            }
+            position += recordLength;
+        }
+        return position;
+    }
+
+    private static ByteBuffer encode(String key, byte[] value) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int valueLength = value != null ? value.length : REMOVED;
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + keyBytes.length + Math.max(0, valueLength));
+        record.position(Integer.BYTES);
+        record.putInt(keyBytes.length).putInt(valueLength).put(keyBytes);
+        if (value != null) {
+            record.put(value);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), Integer.BYTES, record.capacity() - Integer.BYTES);
+        record.putInt(0, (int) crc.getValue());
+        record.flip();
+        return record;
+    }
+
+    private static void copy(Segment source, long offset, long length, Segment target, long position) throws IOException {
+        long copied = 0;
+        while (copied < length) {
+            copied += source.channel.transferTo(offset + copied, length - copied, target.channel.position(position + copied));
+        }
+    }
+
+    private static ThreadPoolExecutor createCompactExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "DataStore-Compact");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * The position of a key's latest record.
+     */
+    private static final class Location {
+
+        private final Segment segment;
+        private final long offset;
+        private final int recordLength;
+        private final int valueLength;
+
+        private Location(Segment segment, long offset, int recordLength, int valueLength) {
+            this.segment = segment;
+            this.offset = offset;
+            this.recordLength = recordLength;
+            this.valueLength = valueLength;
+        }
+    }
+
+    /**
+     * An open log file and its memory-mapped view.
+     * <p>
+     * The view is extended as the log grows, but only once the log has grown by half of the mapped size or at least
+     * 64 KiB since it was last mapped, so that it is mapped again a logarithmic number of times as the log grows. Reads
+     * of records appended since then go through the channel.
+     */
+    private static final class Segment {
+
+        private final FileChannel channel;
+        private volatile MappedByteBuffer mapped;
+        private long end;
+
+        private Segment(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        private void read(long position, byte[] target) throws IOException {
+            MappedByteBuffer view = mapped;
+            if (view == null || position + target.length > view.capacity()) {
+                view = mapIfGrown();
+            }
+
+            if (readMapped(view, position, target)) {
+                return;
+            }
+
+            // Recently appended records and logs too large for a single mapping are read through the channel
+            ByteBuffer buffer = ByteBuffer.wrap(target);
+            try {
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, position + buffer.position()) < 0) {
+                        throw new IOException("Unexpected end of data store.");
+                    }
+                }
+            } catch (ClosedChannelException e) {
+                // A compaction replaced the log in the meantime, after mapping all of it
+                if (!readMapped(mapped, position, target)) {
+                    throw e;
+                }
+            }
+        }
+
+        private static boolean readMapped(MappedByteBuffer view, long position, byte[] target) {
+            if (view == null || position + target.length > view.capacity()) {
+                return false;
+            }
+            ByteBuffer slice = view.duplicate();
+            slice.position((int) position);
+            slice.get(target);
+            return true;
+        }
+
+        /**
+         * Maps the log again if it has grown enough since it was last mapped.
+         *
+         * @return the current view, or {@code null} if the log has not been mapped yet
+         */
+        private synchronized MappedByteBuffer mapIfGrown() throws IOException {
+            if (!channel.isOpen()) {
+                return mapped;
+            }
+            long mappedSize = mapped != null ? mapped.capacity() : 0;
+            if (channel.size() - mappedSize < Math.max(MIN_REMAP_BYTES, mappedSize / 2)) {
+                return mapped;
+            }
+            return mapAll();
+        }
+
+        /**
+         * Maps the whole log, unless it is mapped completely already.
+         *
+         * @return the current view, or {@code null} if the log is too large for a single mapping
+         */
+        private synchronized MappedByteBuffer mapAll() throws IOException {
+            if (!channel.isOpen()) {
+                return mapped;
+            }
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                return null;
+            }
+            if (mapped == null || mapped.capacity() < size) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            return mapped;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package org.example.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations in nanoseconds, with fixed log-scale buckets.
+ * <p>
+ * Every power of two is split into four buckets, so a recorded duration is off by at most an eighth of its value when
+ * it is read back as a percentile. Durations below four nanoseconds get a bucket each. Buckets, the total and the
+ * count are {@link LongAdder}s, so threads recording at the same time do not contend with each other.
+ * <p>
+ * <b>Note:</b> Instances are created and managed by {@link MetricsUtil}.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKETS = 4;
+    private static final int BUCKETS = (Long.SIZE - 2) * SUB_BUCKETS;
+
+    private final String name;
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    LatencyHistogram(String name) {
+        this.name = name;
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Returns the name the histogram is registered under.
+     *
+     * @return the name of the histogram
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Records the time elapsed since the given start.
+     *
+     * @param startNanos the start time, as returned by {@link System#nanoTime()}
+     */
+    public void record(long startNanos) {
+        recordNanos(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos the duration in nanoseconds; negative durations are recorded as {@code 0}
+     */
+    public void recordNanos(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets[bucket(value)].increment();
+        count.increment();
+        totalNanos.add(value);
+
+        long max = maxNanos.get();
+        while (value > max && !maxNanos.compareAndSet(max, value)) {
+            max = maxNanos.get();
+        }
+    }
+
+    /**
+     * Returns the number of recorded durations.
+     *
+     * @return the number of durations
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the average of the recorded durations.
+     *
+     * @return the average in nanoseconds, or {@code 0} if nothing was recorded
+     */
+    public long getAverageNanos() {
+        long recorded = count.sum();
+        return recorded == 0 ? 0 : totalNanos.sum() / recorded;
+    }
+
+    /**
+     * Returns the longest recorded duration.
+     *
+     * @return the maximum in nanoseconds
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Returns an estimate of the given percentile of the recorded durations.
+     * <p>
+     * The estimate is the middle of the bucket holding the percentile, capped at the maximum.
+     *
+     * @param percentile the percentile between {@code 0} and {@code 100}
+     * @return the estimated duration in nanoseconds, or {@code 0} if nothing was recorded
+     */
+    public long getPercentileNanos(double percentile) {
+        long[] counts = new long[BUCKETS];
+        long recorded = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            recorded += counts[i];
+        }
+        if (recorded == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(recorded * Math.min(100, Math.max(0, percentile)) / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                long lower = lowerBound(i);
+                long middle = lower + (lowerBound(i + 1) - lower) / 2;
+                return Math.min(middle, maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    /**
+     * Clears all recorded durations.
+     */
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        totalNanos.reset();
+        maxNanos.set(0);
+    }
+
+    private static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - 2)) & (SUB_BUCKETS - 1);
+        return (exponent - 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long lowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        if (bucket >= BUCKETS) {
+            return Long.MAX_VALUE;
+        }
+        int exponent = bucket / SUB_BUCKETS + 1;
+        long sub = bucket % SUB_BUCKETS;
+        return (SUB_BUCKETS | sub) << (exponent - 2);
+    }
+}
@@ -0,0 +1,275 @@
+package org.example.util;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.bukkit.Bukkit.getServer;
+import static org.example.util.ColorUtil.strip;
+import static org.example.util.ColorUtil.translate;
+
+/**
+ * Utility class for inspecting the plugin's log from commands.
+ * <p>
+ * This class provides command handlers that send log entries kept by {@link LoggerUtil} to the command sender, which
+ * can be either a player or the server console. Permission checks are left to the calling command, typically through
+ * {@link AccessUtil}.
+ * <p>
+ * The text of log entries is shown as it was logged: color codes in it are neither translated nor stripped, so a
+ * literal {@code &} in a logged message is shown as is.
+ */
+public class LogCommandUtil {
+
+    private static final Logger logger = getServer().getLogger();
+    private static final int DEFAULT_QUERY_LIMIT = 20;
+    private static final int MAX_QUERY_LIMIT = 500;
+    private static final int TAIL_PAGE_SIZE = 10;
+
+    private static final ThreadPoolExecutor queryExecutor = createQueryExecutor();
+
+    /**
+     * Sends the binary log entries written within a time range to the command sender.
+     * <p>
+     * Expects the arguments {@code <from> <to> [limit]}, where {@code from} and {@code to} are either a time of day
+     * ({@code HH:mm} or {@code HH:mm:ss}, meaning today) or a date and time ({@code yyyy-MM-ddTHH:mm[:ss]}). The log
+     * is read on a background thread, one query at a time, and at most {@code limit} entries are then sent on the main
+     * server thread. Entries are not sent to a player who has logged out in the meantime.
+     * <p>
+     * <b>Note:</b> The binary log must be enabled with {@link LoggerUtil#enableBinaryLog(long, int)}.
+     *
+     * @param plugin the plugin instance whose scheduler sends the results on the main thread
+     * @param sender the command sender who will receive the log entries; can be a player or console
+     * @param args   the command arguments
+     */
+    public static void query(JavaPlugin plugin, CommandSender sender, String[] args) {
+        if (args.length < 2) {
+            send(sender, "&cUsage: <from> <to> [limit], e.g. 14:00 14:05 or 2024-07-19T14:00 2024-07-19T14:05");
+            return;
+        }
+
+        long from;
+        long to;
+        int limit;
+        try {
+            from = parseTime(args[0]);
+            to = parseTime(args[1]);
+            limit = args.length > 2 ? Math.min(Math.max(Integer.parseInt(args[2]), 1), MAX_QUERY_LIMIT) : DEFAULT_QUERY_LIMIT;
+        } catch (DateTimeParseException | NumberFormatException e) {
+            send(sender, "&cInvalid time or limit. Use HH:mm[:ss] or yyyy-MM-ddTHH:mm[:ss].");
+            return;
+        }
+
+        queryExecutor.execute(() -> {
+            List<String> lines = new ArrayList<>();
+            String error = null;
+            try {
+                LoggerUtil.queryLog(from, to, (timeMillis, text, logDateTime) -> {
+                    lines.add(entry(sender, "&7" + LogTimestamp.prefix(timeMillis) + "&f", text));
+                    return lines.size() < limit;
+                });
+            } catch (IllegalStateException e) {
+                error = "&cThe binary log is not enabled.";
+            } catch (IOException e) {
+                error = "&cCould not read the log: " + e.getMessage();
+            }
+
+            String failure = error;
+            plugin.getServer().getScheduler().scheduleSyncDelayedTask(plugin, () -> sendQueryResult(sender, lines, failure, limit));
+        });
+    }
+
+    /**
+     * Sends the result of a time-range query to the command sender. Runs on the main server thread.
+     *
+     * @param sender the command sender who ran the query
+     * @param lines  the formatted entries found
+     * @param error  the error to report instead of the entries, or {@code null} if the query succeeded
+     * @param limit  the maximum number of entries the query returned
+     */
+    private static void sendQueryResult(CommandSender sender, List<String> lines, String error, int limit) {
+        if (sender instanceof Player && !((Player) sender).isOnline()) {
+            return;
+        }
+
+        if (error != null) {
+            send(sender, error);
+            return;
+        }
+
+        for (String line : lines) {
+            sendEntry(sender, line);
+        }
+        if (lines.isEmpty()) {
+            send(sender, "&7No log entries found in that time range.");
+        } else if (lines.size() == limit) {
+            send(sender, String.format("&7Showing the first &e%d &7entries. Narrow the range or raise the limit to see more.", limit));
+        }
+    }
+
+    /**
+     * Sends a page of the most recent log entries to the command sender.
+     * <p>
+     * Expects the optional arguments {@code [page] [info|warning|severe] [filter...]}. Entries are read from the
+     * in-memory history kept by {@link LoggerUtil#enableLogHistory(int)}, so no disk I/O is involved. Page {@code 1}
+     * holds the newest entries; the level keeps entries at or above that level, and the filter keeps entries containing
+     * the given text, ignoring case.
+     *
+     * @param sender the command sender who will receive the log entries; can be a player or console
+     * @param args   the command arguments
+     */
+    public static void tail(CommandSender sender, String[] args) {
+        int page = 1;
+        int index = 0;
+        if (index < args.length && args[index].matches("\\d+")) {
+            page = Math.max(1, Integer.parseInt(args[index++]));
+        }
+
+        Level minLevel = null;
+        if (index < args.length) {
+            minLevel = parseLevel(args[index]);
+            if (minLevel != null) {
+                index++;
+            }
+        }
+
+        String filter = index < args.length ? String.join(" ", Arrays.copyOfRange(args, index, args.length)) : null;
+
+        String[] lines = new String[TAIL_PAGE_SIZE];
+        int found = LoggerUtil.visitRecentLogs((page - 1) * TAIL_PAGE_SIZE, TAIL_PAGE_SIZE, minLevel, filter,
+                (timeMillis, level, text) -> {
+                    for (int i = 0; i < lines.length; i++) {
+                        if (lines[i] == null) {
+                            lines[i] = entry(sender, "&7" + LogTimestamp.prefix(timeMillis) + levelColor(level), text);
+                            return;
+                        }
+                    }
+                });
+
+        if (found == 0) {
+            send(sender, String.format("&7No recent log entries found on page &e%d&7.", page));
+            return;
+        }
+
+        send(sender, String.format("&7Recent log entries, page &e%d&7:", page));
+        for (int i = found - 1; i >= 0; i--) {
+            sendEntry(sender, lines[i]);
+        }
+    }
+
+    /**
+     * Parses a level argument of the tail command.
+     *
+     * @param argument the argument to parse
+     * @return the matching level, or {@code null} if the argument is not a level
+     */
+    private static Level parseLevel(String argument) {
+        switch (argument.toLowerCase(Locale.ROOT)) {
+            case "info":
+                return Level.INFO;
+            case "warning":
+            case "warn":
+                return Level.WARNING;
+            case "severe":
+            case "error":
+                return Level.SEVERE;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Returns the chat color used to display entries of the given level.
+     *
+     * @param level the level of the entry
+     * @return the color code prefix for the entry text
+     */
+    private static String levelColor(Level level) {
+        if (level.intValue() >= Level.SEVERE.intValue()) {
+            return "&c";
+        }
+        return level.intValue() >= Level.WARNING.intValue() ? "&e" : "&f";
+    }
+
+    /**
+     * Parses a command time argument into milliseconds since the epoch.
+     *
+     * @param argument the time of day or date and time to parse
+     * @return the parsed point in time
+     */
+    private static long parseTime(String argument) {
+        LocalDateTime dateTime = argument.indexOf('T') > 0
+                ? LocalDateTime.parse(argument)
+                : LocalDateTime.of(LocalDate.now(), LocalTime.parse(argument));
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Formats a log entry for the command sender, translating the color codes of the prefix for players and stripping
+     * them for the console, and appending the logged text unchanged.
+     *
+     * @param sender the command sender to receive the entry
+     * @param prefix the prefix of the entry, with color codes
+     * @param text   the logged text
+     * @return the formatted entry, ready to be sent with {@link #sendEntry(CommandSender, String)}
+     */
+    private static String entry(CommandSender sender, String prefix, String text) {
+        return (sender instanceof Player ? translate(prefix) : strip(prefix)) + text;
+    }
+
+    /**
+     * Sends an entry formatted by {@link #entry(CommandSender, String, String)} to the command sender.
+     *
+     * @param sender the command sender to receive the entry
+     * @param line   the formatted entry
+     */
+    private static void sendEntry(CommandSender sender, String line) {
+        if (sender instanceof Player) {
+            sender.sendMessage(line);
+        } else {
+            logger.info(line);
+        }
+    }
+
+    /**
+     * Creates the executor running time-range queries on a single daemon thread, which exits while idle.
+     */
+    private static ThreadPoolExecutor createQueryExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "LogCommandUtil-Query");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Sends a message to the command sender, translating color codes for players and stripping them for the console.
+     *
+     * @param sender  the command sender to receive the message
+     * @param message the message to send
+     */
+    private static void send(CommandSender sender, String message) {
+        if (sender instanceof Player) {
+            sender.sendMessage(translate(message));
+        } else {
+            logger.info(strip(message));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.util;
+
+import java.util.logging.Level;
+
+/**
+ * A single log entry captured at the time it was logged through {@link LoggerUtil}.
+ * <p>
+ * The timestamp is recorded when the entry is created so that entries written by a background thread keep the time
+ * at which they were logged rather than the time at which they reached the disk.
+ */
+final class LogEntry {
+
+    final long timeMillis;
+    final Level level;
+    final String text;
+    final boolean logDateTime;
+
+    /**
+     * The position of this entry in the {@link LogRingBuffer}, assigned before the entry is published to it.
+     */
+    long sequence = -1;
+
+    LogEntry(long timeMillis, Level level, String text, boolean logDateTime) {
+        this.timeMillis = timeMillis;
+        this.level = level;
+        this.text = text;
+        this.logDateTime = logDateTime;
+    }
+
+    /**
+     * Appends the formatted entry, including the optional timestamp prefix, to the given builder.
+     *
+     * @param builder the builder to append to
+     */
+    void appendTo(StringBuilder builder) {
+        if (logDateTime) {
+            builder.append(LogTimestamp.prefix(timeMillis));
+        }
+        builder.append(text);
+    }
+}
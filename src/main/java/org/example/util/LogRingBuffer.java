@@ -0,0 +1,123 @@
+package org.example.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Level;
+
+/**
+ * Fixed-capacity, lock-free buffer of the most recent log entries.
+ * <p>
+ * Writers claim a sequence number with a single atomic increment and publish their entry into the slot that sequence
+ * maps to, overwriting the oldest entry once the buffer is full. Readers walk backwards from the newest sequence and
+ * skip any slot that has already been overwritten by a newer entry, so neither side ever blocks the other and memory
+ * use stays bounded by the capacity.
+ * <p>
+ * <b>Note:</b> The buffer is created and filled by {@link LoggerUtil#enableLogHistory(int)}.
+ */
+public final class LogRingBuffer {
+
+    private final AtomicReferenceArray<LogEntry> slots;
+    private final AtomicLong cursor = new AtomicLong();
+    private final int mask;
+
+    /**
+     * Callback receiving the entries matched by {@link #visit(int, int, Level, String, Visitor)}.
+     */
+    @FunctionalInterface
+    public interface Visitor {
+
+        /**
+         * Visits a single log entry.
+         *
+         * @param timeMillis the time the entry was logged, in milliseconds since the epoch
+         * @param level      the level the entry was logged at
+         * @param text       the text of the entry
+         */
+        void visit(long timeMillis, Level level, String text);
+    }
+
+    /**
+     * Constructs a new ring buffer.
+     *
+     * @param capacity the minimum number of entries to keep; rounded up to the next power of two
+     */
+    LogRingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30.");
+        }
+
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Adds an entry, overwriting the oldest entry if the buffer is full.
+     *
+     * @param entry the entry to add
+     */
+    void add(LogEntry entry) {
+        long sequence = cursor.getAndIncrement();
+        entry.sequence = sequence;
+        slots.set((int) (sequence & mask), entry);
+    }
+
+    /**
+     * Visits the entries matching the given filters from newest to oldest, without copying the buffer.
+     *
+     * @param skip     the number of matching entries to skip before visiting, used for paging
+     * @param limit    the maximum number of entries to visit
+     * @param minLevel the lowest level to include, or {@code null} to include every level
+     * @param filter   the text that entries must contain, ignoring case, or {@code null} to include every entry
+     * @param visitor  the visitor receiving the matching entries
+     * @return the number of entries visited
+     */
+    int visit(int skip, int limit, Level minLevel, String filter, Visitor visitor) {
+        long newest = cursor.get() - 1;
+        long oldest = Math.max(0L, newest - mask);
+        int visited = 0;
+
+        for (long sequence = newest; sequence >= oldest && visited < limit; sequence--) {
+            LogEntry entry = slots.get((int) (sequence & mask));
+            if (entry == null || entry.sequence != sequence) {
+                continue; // Not yet published, or already overwritten by a newer entry
+            }
+            if (minLevel != null && entry.level.intValue() < minLevel.intValue()) {
+                continue;
+            }
+            if (filter != null && !containsIgnoreCase(entry.text, filter)) {
+                continue;
+            }
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+
+            visitor.visit(entry.timeMillis, entry.level, entry.text);
+            visited++;
+        }
+        return visited;
+    }
+
+    /**
+     * Returns the maximum number of entries kept.
+     *
+     * @return the capacity of the buffer
+     */
+    int capacity() {
+        return mask + 1;
+    }
+
+    private static boolean containsIgnoreCase(String text, String filter) {
+        int last = text.length() - filter.length();
+        for (int i = 0; i <= last; i++) {
+            if (text.regionMatches(true, i, filter, 0, filter.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.util;
+
+/**
+ * Destination for log file entries written by {@link LoggerUtil} and {@link AsyncLogWriter}.
+ * <p>
+ * Entries are first buffered with {@link #append(LogEntry)} and then written together by {@link #flush(boolean)}, so
+ * that a batch of entries costs a single write. Implementations synchronize on themselves.
+ */
+interface LogSink {
+
+    /**
+     * Buffers an entry to be written by the next {@link #flush(boolean)}.
+     *
+     * @param entry the entry to buffer
+     */
+    void append(LogEntry entry);
+
+    /**
+     * Writes all buffered entries.
+     *
+     * @param keepOpen if {@code false}, the underlying file is closed again after writing
+     */
+    void flush(boolean keepOpen);
+
+    /**
+     * Closes the underlying file without stopping any background work. The next write reopens it.
+     */
+    void release();
+
+    /**
+     * Closes the underlying file and waits for any background work to finish.
+     */
+    void close();
+
+    /**
+     * Buffers and immediately writes a single entry.
+     *
+     * @param entry    the entry to write
+     * @param keepOpen if {@code false}, the underlying file is closed again after writing
+     */
+    default void write(LogEntry entry, boolean keepOpen) {
+        synchronized (this) {
+            append(entry);
+            flush(keepOpen);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package org.example.util;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+
+/**
+ * Rate limiter and duplicate collapser for log output.
+ * <p>
+ * Every distinct message key gets its own token bucket, refilled at the rate configured for the level the message is
+ * logged at. Messages arriving while their bucket is empty are dropped and counted, and the counts are reported by
+ * {@link #report()}. A message that passes its rate limit and is identical to the one emitted immediately before it on
+ * the same channel is not emitted again; once a different message arrives (or on the next report), a single
+ * {@code "Previous message repeated N times."} summary is emitted instead. The rate limit is always checked first, so
+ * repeats use up permits like any other message, and a dropped message is never reported as repeated.
+ * <p>
+ * Checks for known keys only read the key's cached hash code, compare strings and update primitive fields, so they
+ * do not allocate.
+ * <p>
+ * <b>Note:</b> Instances are created and managed by {@link LoggerUtil#enableLogThrottling(org.bukkit.plugin.java.JavaPlugin, long)}.
+ */
+final class LogThrottle {
+
+    /**
+     * Console output channel, used by {@link LoggerUtil#logInfo(String)} and its siblings.
+     */
+    static final int CONSOLE = 0;
+
+    /**
+     * Log file channel, used by {@link LoggerUtil#writeToLog(String, boolean)}.
+     */
+    static final int FILE = 1;
+
+    private static final int MAX_KEYS = 4096;
+    private static final int MAX_REPORTED_TEXT = 120;
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Repeat[] repeats = {new Repeat(), new Repeat()};
+    private final List<BiConsumer<Level, String>> outputs;
+    private final String pluginName;
+    private volatile Limits limits = new Limits(new double[]{5.0, 5.0, 10.0}, new double[]{20.0, 20.0, 50.0});
+
+    /**
+     * Constructs a new throttle with the default limits: 5 messages per second with a burst of 20 for
+     * {@link Level#INFO} and {@link Level#WARNING}, and 10 per second with a burst of 50 for {@link Level#SEVERE}.
+     *
+     * @param pluginName    the name of the plugin, used in summaries
+     * @param consoleOutput receives summaries for the console channel
+     * @param fileOutput    receives summaries for the log file channel
+     */
+    LogThrottle(String pluginName, BiConsumer<Level, String> consoleOutput, BiConsumer<Level, String> fileOutput) {
+        this.pluginName = pluginName;
+        this.outputs = Arrays.asList(consoleOutput, fileOutput);
+    }
+
+    /**
+     * Sets the rate limit for messages logged at the given level or any level up to the next configurable one.
+     * <p>
+     * The limits are replaced as a whole, so a concurrent check sees either the old or the new limits of a level.
+     *
+     * @param level            {@link Level#INFO}, {@link Level#WARNING} or {@link Level#SEVERE}
+     * @param permitsPerSecond the sustained number of messages per key allowed each second
+     * @param burst            the number of messages per key allowed in a single burst
+     */
+    synchronized void setLimit(Level level, double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive.");
+        }
+
+        int index = levelIndex(level);
+        double[] rates = limits.permitsPerSecond.clone();
+        double[] bursts = limits.burst.clone();
+        rates[index] = permitsPerSecond;
+        bursts[index] = burst;
+        limits = new Limits(rates, bursts);
+    }
+
+    /**
+     * Decides whether a message may be emitted, checking the rate limit before collapsing repeats.
+     * <p>
+     * Emits a repeat summary for the previous message on the channel first if this message passes its rate limit and
+     * differs from it.
+     *
+     * @param channel {@link #CONSOLE} or {@link #FILE}
+     * @param level   the level of the message
+     * @param key     the key identifying similar messages, usually the message itself or its template
+     * @param message the message about to be emitted, compared with the previous one for collapsing
+     * @return {@code true} if the message should be emitted, {@code false} if it is suppressed
+     */
+    boolean allow(int channel, Level level, String key, String message) {
+        return acquire(level, key) && collapse(channel, level, message);
+    }
+
+    /**
+     * Takes a permit from the bucket of the given key.
+     * <p>
+     * Can be called before the message is formatted, so that suppressed messages are never built.
+     *
+     * @param level the level of the message
+     * @param key   the key identifying similar messages, usually the message itself or its template
+     * @return {@code true} if the key is within its rate limit, {@code false} if the message is suppressed
+     */
+    boolean acquire(Level level, String key) {
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= MAX_KEYS) {
+                return true;
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new Bucket());
+        }
+
+        Limits current = limits;
+        int index = levelIndex(level);
+        return bucket.tryAcquire(System.nanoTime(), current.permitsPerSecond[index], current.burst[index]);
+    }
+
+    /**
+     * Collapses a message identical to the previous message on the channel.
+     * <p>
+     * Must only be called for messages that passed {@link #acquire(Level, String)}, since the message is recorded as
+     * the last one emitted on the channel. Emits a repeat summary for the previous message first if this message
+     * differs from it.
+     *
+     * @param channel {@link #CONSOLE} or {@link #FILE}
+     * @param level   the level of the message
+     * @param message the message about to be emitted
+     * @return {@code true} if the message should be emitted, {@code false} if it repeats the previous message
+     */
+    boolean collapse(int channel, Level level, String message) {
+        return repeats[channel].admit(channel, level, message);
+    }
+
+    /**
+     * Emits pending repeat summaries and the number of messages suppressed by rate limiting since the last report,
+     * then forgets keys that have been idle long enough for their bucket to refill.
+     */
+    void report() {
+        for (int channel = 0; channel < repeats.length; channel++) {
+            repeats[channel].flush(channel);
+        }
+
+        long now = System.nanoTime();
+        Iterator<Map.Entry<String, Bucket>> iterator = buckets.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Bucket> entry = iterator.next();
+            long suppressed = entry.getValue().drainSuppressed();
+            if (suppressed > 0) {
+                String text = entry.getKey();
+                if (text.length() > MAX_REPORTED_TEXT) {
+                    text = text.substring(0, MAX_REPORTED_TEXT) + "...";
+                }
+                outputs.get(CONSOLE).accept(Level.WARNING, String.format("[%s] Suppressed %d log messages like: %s", pluginName, suppressed, text));
+            } else if (entry.getValue().isIdle(now)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static int levelIndex(Level level) {
+        if (level.intValue() >= Level.SEVERE.intValue()) {
+            return 2;
+        }
+        return level.intValue() >= Level.WARNING.intValue() ? 1 : 0;
+    }
+
+    /**
+     * The rate limits of every configurable level, indexed by {@link #levelIndex(Level)}. Never modified once published.
+     */
+    private static final class Limits {
+
+        private final double[] permitsPerSecond;
+        private final double[] burst;
+
+        private Limits(double[] permitsPerSecond, double[] burst) {
+            this.permitsPerSecond = permitsPerSecond;
+            this.burst = burst;
+        }
+    }
+
+    /**
+     * Token bucket for a single message key.
+     */
+    private static final class Bucket {
+
+        private double tokens = -1;
+        private long lastRefill;
+        private long lastUsed;
+        private long suppressed;
+
+        private synchronized boolean tryAcquire(long now, double permitsPerSecond, double burst) {
+            if (tokens < 0) {
+                tokens = burst;
+            } else {
+                tokens = Math.min(burst, tokens + (now - lastRefill) * permitsPerSecond / NANOS_PER_SECOND);
+            }
+            lastRefill = now;
+            lastUsed = now;
+
+            if (tokens >= 1) {
+                tokens--;
+                return true;
+            }
+            suppressed++;
+            return false;
+        }
+
+        private synchronized long drainSuppressed() {
+            long count = suppressed;
+            suppressed = 0;
+            return count;
+        }
+
+        private synchronized boolean isIdle(long now) {
+            return now - lastUsed > TimeUnit.MINUTES.toNanos(1);
+        }
+    }
+
+    /**
+     * Tracks the last message of a channel and how many times it has been repeated in a row.
+     */
+    private final class Repeat {
+
+        private String lastMessage;
+        private Level lastLevel;
+        private int count;
+
+        private boolean admit(int channel, Level level, String message) {
+            String summary;
+            Level summaryLevel;
+            synchronized (this) {
+                if (message.equals(lastMessage) && level == lastLevel) {
+                    count++;
+                    return false;
+                }
+
+                summary = count > 0 ? summary(count) : null;
+                summaryLevel = lastLevel;
+                lastMessage = message;
+                lastLevel = level;
+                count = 0;
+            }
+
+            if (summary != null) {
+                outputs.get(channel).accept(summaryLevel, summary);
+            }
+            return true;
+        }
+
+        private void flush(int channel) {
+            String summary;
+            Level summaryLevel;
+            synchronized (this) {
+                if (count == 0) {
+                    return;
+                }
+                summary = summary(count);
+                summaryLevel = lastLevel;
+                count = 0;
+            }
+            outputs.get(channel).accept(summaryLevel, summary);
+        }
+
+        private String summary(int repeated) {
+            return String.format("[%s] Previous message repeated %d times.", pluginName, repeated);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.util;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Utility class for building log entry timestamp prefixes.
+ * <p>
+ * The formatted prefix (e.g., {@code "[2024-07-19 22:59:32] "}) only changes once per second, so the last prefix is
+ * cached and reused for every entry written within the same second instead of formatting a new date each time.
+ */
+final class LogTimestamp {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static volatile Prefix cached = new Prefix(Long.MIN_VALUE, "");
+
+    private LogTimestamp() {
+    }
+
+    /**
+     * Returns the timestamp prefix for the given point in time.
+     *
+     * @param epochMillis the point in time in milliseconds since the epoch
+     * @return the timestamp prefix, including the surrounding brackets and a trailing space
+     */
+    static String prefix(long epochMillis) {
+        long second = Math.floorDiv(epochMillis, 1000L);
+        Prefix current = cached;
+        if (current.second == second) {
+            return current.text;
+        }
+
+        LocalDateTime dateTime = LocalDateTime.ofInstant(Instant.ofEpochSecond(second), ZoneId.systemDefault());
+        Prefix updated = new Prefix(second, '[' + FORMATTER.format(dateTime) + "] ");
+        cached = updated;
+        return updated.text;
+    }
+
+    /**
+     * Immutable pairing of an epoch second and its formatted prefix, published as a single reference.
+     */
+    private static final class Prefix {
+
+        private final long second;
+        private final String text;
+
+        private Prefix(long second, String text) {
+            this.second = second;
+            this.text = text;
+        }
+    }
+}
@@ -1,14 +1,13 @@
 package org.example.util;
 
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitScheduler;
 import org.bukkit.util.config.Configuration;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.function.Supplier;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import static org.bukkit.Bukkit.getServer;
@@ -22,12 +21,31 @@ import static org.bukkit.Bukkit.getServer;
  * custom log messages can be written.
  * <p>
  * By using this utility, you can log messages with a single method call, making your code cleaner
- * and easier to maintain. You can also initialize and manage a log file for additional logging purposes.
+ * and easier to maintain. Messages that need formatting should be passed as a template with arguments, or as a
+ * supplier, so that they are only built when the level is enabled and the message is not throttled. You can also
+ * initialize and manage a log file for additional logging purposes.
+ * <p>
+ * Log file writes happen on the calling thread by default. Calling
+ * {@link #enableAsyncLogging(int, int, long, AsyncLogWriter.BackpressurePolicy)} moves them to a background writer
+ * that batches entries, which keeps file I/O out of the server tick. {@link #enableLogRotation(long, boolean, int)}
+ * splits the log file into segments that are compressed and pruned in the background, and
+ * {@link #enableBinaryLog(long, int)} replaces the text log with an indexed binary log that supports fast time-range
+ * queries through {@link #queryLog(long, long, BinaryLogReader.RecordVisitor)}. {@link #enableLogHistory(int)} keeps
+ * the most recent entries in memory so they can be shown without any disk I/O, and
+ * {@link #enableLogThrottling(JavaPlugin, long)} rate-limits and collapses repeated messages so that a misbehaving
+ * feature cannot flood the console or the disk.
  */
 public class LoggerUtil extends Configuration {
 
     private static File logFile;
     private static String pluginName;
+    private static RollingLogFile logOutput;
+    private static volatile LogSink logSink;
+    private static volatile BinaryLogReader binaryReader;
+    private static volatile AsyncLogWriter asyncWriter;
+    private static volatile LogRingBuffer history;
+    private static volatile LogThrottle throttle;
+    private static int throttleTaskId = -1;
     private static final Logger logger = getServer().getLogger();
 
     /**
@@ -43,6 +61,8 @@ public class LoggerUtil extends Configuration {
         super(new File(plugin.getDataFolder(), fileName));
         logFile = new File(plugin.getDataFolder(), fileName);
         pluginName = plugin.getDescription().getName();
+        logOutput = new RollingLogFile(logFile, pluginName);
+        logSink = logOutput;
     }
 
     /**
@@ -56,10 +76,10 @@ public class LoggerUtil extends Configuration {
         if (!logFile.exists()) {
             try {
                 if (logFile.createNewFile()) {
-                    logger.info(String.format("[%s] Log '%s' created successfully.", pluginName, logFile.getName()));
+                    logInfo("[%s] Log '%s' created successfully.", pluginName, logFile.getName());
                 }
             } catch (IOException e) {
-                logger.severe(String.format("[%s] Could not create log '%s': %s", pluginName, logFile.getName(), e.getMessage()));
+                logSevere("[%s] Could not create log '%s': %s", pluginName, logFile.getName(), e.getMessage());
             }
         }
     }
@@ -69,28 +89,276 @@ public class LoggerUtil extends Configuration {
      * <p>
      * This method appends the provided text to the log file, optionally prepending the current date and time.
      * If the log file does not exist, ensure it has been initialized using {@link #initializeLog()} before calling this method.
+     * <p>
+     * If asynchronous logging is enabled, the entry is queued for the background writer and this method returns
+     * immediately. The timestamp still reflects the time of this call. If log throttling is enabled, the entry may be
+     * suppressed.
      *
      * @param text        the text to write to the log file
      * @param logDateTime if {@code true}, prepends the current date and time to the log entry
      */
     public static void writeToLog(String text, boolean logDateTime) {
-        String logEntry;
-        if (logDateTime) {
-            LocalDateTime now = LocalDateTime.now();
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-            String timeStamp = now.format(formatter);
+        if (!MetricsUtil.isEnabled()) {
+            writeThrottled(text, logDateTime);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            writeThrottled(text, logDateTime);
+        } finally {
+            MetricsUtil.LOG_WRITE.record(start);
+        }
+    }
+
+    /**
+     * Writes an entry to the log file unless it is throttled, without recording metrics.
+     */
+    private static void writeThrottled(String text, boolean logDateTime) {
+        LogThrottle limiter = throttle;
+        if (limiter != null && !limiter.allow(LogThrottle.FILE, Level.INFO, text, text)) {
+            return;
+        }
+        writeEntry(text, logDateTime);
+    }
+
+    /**
+     * Writes an entry to the log file and the recent log history, bypassing log throttling.
+     *
+     * @param text        the text to write to the log file
+     * @param logDateTime if {@code true}, prepends the current date and time to the log entry
+     */
+    private static void writeEntry(String text, boolean logDateTime) {
+        LogEntry entry = new LogEntry(System.currentTimeMillis(), Level.INFO, text, logDateTime);
+        LogRingBuffer recent = history;
+        if (recent != null) {
+            recent.add(entry);
+        }
+
+        AsyncLogWriter async = asyncWriter;
+        if (async != null) {
+            async.submit(entry);
+            return;
+        }
+
+        logSink.write(entry, false);
+    }
+
+    /**
+     * Enables asynchronous, batched writing of log file entries.
+     * <p>
+     * Entries passed to {@link #writeToLog(String, boolean)} are placed in a bounded queue and written by a single
+     * background thread, which keeps the log file open and writes whenever {@code batchSize} entries are waiting or
+     * {@code flushIntervalMillis} has elapsed. If asynchronous logging is already enabled, the previous writer is
+     * flushed and replaced.
+     * <p>
+     * <b>Note:</b> Call {@link #disableAsyncLogging()} when the plugin is disabled so that queued entries are written.
+     *
+     * @param capacity            the maximum number of entries waiting to be written
+     * @param batchSize           the number of entries after which a batch is written
+     * @param flushIntervalMillis the maximum time in milliseconds an entry waits before it is written
+     * @param policy              what to do with entries submitted while the queue is full
+     */
+    public static synchronized void enableAsyncLogging(int capacity, int batchSize, long flushIntervalMillis, AsyncLogWriter.BackpressurePolicy policy) {
+        AsyncLogWriter previous = asyncWriter;
+        asyncWriter = new AsyncLogWriter(logSink, pluginName, capacity, batchSize, flushIntervalMillis, policy);
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Disables asynchronous logging.
+     * <p>
+     * Blocks until every queued entry has been written and the log file has been closed. Subsequent calls to
+     * {@link #writeToLog(String, boolean)} write on the calling thread again.
+     */
+    public static synchronized void disableAsyncLogging() {
+        AsyncLogWriter writer = asyncWriter;
+        if (writer != null) {
+            asyncWriter = null;
+            writer.close();
+        }
+    }
+
+    /**
+     * Enables size- and time-based rotation of the log file.
+     * <p>
+     * The log file is rolled over into a dated segment once it reaches {@code maxBytes} or, if {@code daily} is
+     * {@code true}, on the first write after midnight. Rolled segments are compressed to {@code .gz} archives on a
+     * background thread so that writers never wait for compression.
+     *
+     * @param maxBytes    the size in bytes at which the log file is rolled over, or {@code 0} for no size limit
+     * @param daily       if {@code true}, the log file is also rolled over once per day
+     * @param maxArchives the number of newest archives to keep, or {@code 0} to keep every archive
+     */
+    public static void enableLogRotation(long maxBytes, boolean daily, int maxArchives) {
+        logOutput.configure(maxBytes, daily, maxArchives);
+    }
+
+    /**
+     * Closes the log file.
+     * <p>
+     * Disables asynchronous logging, writing any queued entries, and waits for pending archive compression to finish.
+     * This method is intended to be called when the plugin is disabled.
+     */
+    public static synchronized void closeLog() {
+        disableAsyncLogging();
+        logSink.close();
+        if (logSink != logOutput) {
+            logOutput.close();
+        }
+    }
+
+    /**
+     * Switches the log file to the structured binary format.
+     * <p>
+     * Instead of appending text lines, entries are written as length-prefixed records with millisecond timestamps
+     * to segments named after the log file (e.g., {@code plugin-<millis>.blog}), alongside a sparse timestamp index.
+     * Binary logs can be searched by time range with {@link #queryLog(long, long, BinaryLogReader.RecordVisitor)}.
+     * <p>
+     * <b>Note:</b> This method must be called before {@link #enableAsyncLogging(int, int, long, AsyncLogWriter.BackpressurePolicy)}.
+     *
+     * @param maxSegmentBytes the size in bytes at which a segment is rolled over
+     * @param maxSegments     the number of newest segments to keep, or {@code 0} to keep every segment
+     * @throws IllegalStateException if asynchronous logging is already enabled
+     */
+    public static synchronized void enableBinaryLog(long maxSegmentBytes, int maxSegments) {
+        if (asyncWriter != null) {
+            throw new IllegalStateException("Binary logging must be enabled before asynchronous logging.");
+        }
+
+        File directory = logFile.getAbsoluteFile().getParentFile();
+        String name = logFile.getName();
+        String baseName = name.lastIndexOf('.') > 0 ? name.substring(0, name.lastIndexOf('.')) : name;
+
+        LogSink previous = logSink;
+        logSink = new BinaryLogWriter(directory, baseName, pluginName, maxSegmentBytes, maxSegments);
+        binaryReader = new BinaryLogReader(directory, baseName);
+        previous.release();
+    }
+
+    /**
+     * Streams every binary log entry written within the given time range to the visitor.
+     * <p>
+     * Only the segments overlapping the range are opened, and each is searched through its timestamp index and read
+     * through a memory-mapped view, so the log is never loaded into memory as a whole. Entries still waiting in the
+     * asynchronous queue are not included.
+     *
+     * @param fromMillis the start of the range in milliseconds since the epoch, inclusive
+     * @param toMillis   the end of the range in milliseconds since the epoch, inclusive
+     * @param visitor    the visitor receiving the matching entries; returning {@code false} stops the query
+     * @return the number of entries visited
+     * @throws IOException           if a segment cannot be read
+     * @throws IllegalStateException if binary logging is not enabled
+     */
+    public static long queryLog(long fromMillis, long toMillis, BinaryLogReader.RecordVisitor visitor) throws IOException {
+        BinaryLogReader reader = binaryReader;
+        if (reader == null) {
+            throw new IllegalStateException("Binary logging is not enabled.");
+        }
+        return reader.query(fromMillis, toMillis, visitor);
+    }
+
+    /**
+     * Enables the in-memory history of recent log entries.
+     * <p>
+     * The most recent {@code capacity} entries written through {@link #writeToLog(String, boolean)}, {@link #logInfo(String)},
+     * {@link #logWarning(String)} and {@link #logSevere(String)} are kept in a fixed-size, lock-free ring buffer, so they
+     * can be listed with {@link #visitRecentLogs(int, int, Level, String, LogRingBuffer.Visitor)} without reading the
+     * log file. Log file entries are recorded at the {@link Level#INFO} level. Calling this method again replaces the
+     * history with an empty one.
+     *
+     * @param capacity the number of entries to keep; rounded up to the next power of two
+     */
+    public static void enableLogHistory(int capacity) {
+        history = new LogRingBuffer(capacity);
+    }
+
+    /**
+     * Visits recent log entries from newest to oldest.
+     * <p>
+     * Filters are applied while walking the history, so no copy of the buffer is made. Use {@code skip} and
+     * {@code limit} to page through the matching entries.
+     *
+     * @param skip     the number of matching entries to skip
+     * @param limit    the maximum number of entries to visit
+     * @param minLevel the lowest level to include, or {@code null} to include every level
+     * @param filter   the text that entries must contain, ignoring case, or {@code null} to include every entry
+     * @param visitor  the visitor receiving the matching entries
+     * @return the number of entries visited, or {@code 0} if the history is not enabled
+     */
+    public static int visitRecentLogs(int skip, int limit, Level minLevel, String filter, LogRingBuffer.Visitor visitor) {
+        LogRingBuffer recent = history;
+        return recent != null ? recent.visit(skip, limit, minLevel, filter, visitor) : 0;
+    }
+
+    /**
+     * Enables throttling of console and log file output.
+     * <p>
+     * Each distinct message gets its own token bucket, refilled at the rate configured for its level with
+     * {@link #setLogRateLimit(Level, double, int)}. Messages logged while their bucket is empty are dropped. A message
+     * identical to the one logged just before it is collapsed into a single {@code "Previous message repeated N times."}
+     * summary. Every {@code reportIntervalTicks} ticks, pending summaries and the number of messages suppressed per
+     * message are logged.
+     *
+     * @param plugin              the plugin instance, used to schedule the periodic report
+     * @param reportIntervalTicks the interval in server ticks between reports of suppressed messages
+     */
+    public static synchronized void enableLogThrottling(JavaPlugin plugin, long reportIntervalTicks) {
+        disableLogThrottling();
+
+        LogThrottle limiter = new LogThrottle(pluginName != null ? pluginName : plugin.getDescription().getName(),
+                LoggerUtil::emit, (level, message) -> writeEntry(message, true));
+        BukkitScheduler scheduler = plugin.getServer().getScheduler();
+        throttleTaskId = scheduler.scheduleSyncRepeatingTask(plugin, limiter::report, reportIntervalTicks, reportIntervalTicks);
+        throttle = limiter;
+    }
+
+    /**
+     * Disables throttling of console and log file output, reporting any suppressed messages one last time.
+     */
+    public static synchronized void disableLogThrottling() {
+        LogThrottle limiter = throttle;
+        if (limiter == null) {
+            return;
+        }
 
-            logEntry = String.format("[%s] %s", timeStamp, text);
-        } else {
-            logEntry = text;
+        throttle = null;
+        if (throttleTaskId != -1) {
+            getServer().getScheduler().cancelTask(throttleTaskId);
+            throttleTaskId = -1;
         }
+        limiter.report();
+    }
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(logFile, true))) {
-            writer.write(logEntry);
-            writer.newLine();
-        } catch (IOException e) {
-            logger.severe(String.format("[%s] Could not write to log '%s': %s", pluginName, logFile.getName(), e.getMessage()));
+    /**
+     * Sets the rate limit applied per message while log throttling is enabled.
+     * <p>
+     * {@link Level#INFO} limits also apply to entries written with {@link #writeToLog(String, boolean)}.
+     *
+     * @param level            {@link Level#INFO}, {@link Level#WARNING} or {@link Level#SEVERE}
+     * @param permitsPerSecond the sustained number of identical messages allowed each second
+     * @param burst            the number of identical messages allowed in a single burst
+     * @throws IllegalStateException if log throttling is not enabled
+     */
+    public static void setLogRateLimit(Level level, double permitsPerSecond, int burst) {
+        LogThrottle limiter = throttle;
+        if (limiter == null) {
+            throw new IllegalStateException("Log throttling is not enabled.");
         }
+        limiter.setLimit(level, permitsPerSecond, burst);
+    }
+
+    /**
+     * Returns the number of log entries discarded by the {@link AsyncLogWriter.BackpressurePolicy#DROP} policy since
+     * asynchronous logging was last enabled.
+     *
+     * @return the dropped entry count, or {@code 0} if asynchronous logging is disabled
+     */
+    public static long getDroppedLogEntries() {
+        AsyncLogWriter writer = asyncWriter;
+        return writer != null ? writer.getDroppedCount() : 0L;
     }
 
     /**
@@ -101,7 +369,30 @@ public class LoggerUtil extends Configuration {
      * @param message the message to log
      */
     public static void logInfo(String message) {
-        logger.info(message);
+        log(Level.INFO, message);
+    }
+
+    /**
+     * Logs an informational message built from a {@link String#format(String, Object...)} template.
+     * <p>
+     * The message is only formatted if the level is enabled and the message is not suppressed by log throttling.
+     *
+     * @param template the format template of the message
+     * @param args     the arguments referenced by the template
+     */
+    public static void logInfo(String template, Object... args) {
+        log(Level.INFO, template, args);
+    }
+
+    /**
+     * Logs an informational message produced by a supplier.
+     * <p>
+     * The supplier is only called if the level is enabled.
+     *
+     * @param message the supplier of the message to log
+     */
+    public static void logInfo(Supplier<String> message) {
+        log(Level.INFO, message);
     }
 
     /**
@@ -113,7 +404,30 @@ public class LoggerUtil extends Configuration {
      * @param message the message to log
      */
     public static void logWarning(String message) {
-        logger.warning(message);
+        log(Level.WARNING, message);
+    }
+
+    /**
+     * Logs a warning message built from a {@link String#format(String, Object...)} template.
+     * <p>
+     * The message is only formatted if the level is enabled and the message is not suppressed by log throttling.
+     *
+     * @param template the format template of the message
+     * @param args     the arguments referenced by the template
+     */
+    public static void logWarning(String template, Object... args) {
+        log(Level.WARNING, template, args);
+    }
+
+    /**
+     * Logs a warning message produced by a supplier.
+     * <p>
+     * The supplier is only called if the level is enabled.
+     *
+     * @param message the supplier of the message to log
+     */
+    public static void logWarning(Supplier<String> message) {
+        log(Level.WARNING, message);
     }
 
     /**
@@ -124,6 +438,109 @@ public class LoggerUtil extends Configuration {
      * @param message the message to log
      */
     public static void logSevere(String message) {
-        logger.severe(message);
+        log(Level.SEVERE, message);
+    }
+
+    /**
+     * Logs a severe message built from a {@link String#format(String, Object...)} template.
+     * <p>
+     * The message is only formatted if the level is enabled and the message is not suppressed by log throttling.
+     *
+     * @param template the format template of the message
+     * @param args     the arguments referenced by the template
+     */
+    public static void logSevere(String template, Object... args) {
+        log(Level.SEVERE, template, args);
+    }
+
+    /**
+     * Logs a severe message produced by a supplier.
+     * <p>
+     * The supplier is only called if the level is enabled.
+     *
+     * @param message the supplier of the message to log
+     */
+    public static void logSevere(Supplier<String> message) {
+        log(Level.SEVERE, message);
+    }
+
+    /**
+     * Logs a message to the server console unless it is suppressed by log throttling.
+     *
+     * @param level   the level to log the message at
+     * @param message the message to log
+     */
+    private static void log(Level level, String message) {
+        if (!logger.isLoggable(level)) {
+            return;
+        }
+
+        LogThrottle limiter = throttle;
+        if (limiter != null && !limiter.allow(LogThrottle.CONSOLE, level, message, message)) {
+            return;
+        }
+        emit(level, message);
+    }
+
+    /**
+     * Formats and logs a message unless the level is disabled or the message is suppressed by log throttling.
+     * <p>
+     * The template doubles as the throttling key, so the rate limit is checked before anything is formatted.
+     *
+     * @param level    the level to log the message at
+     * @param template the format template of the message
+     * @param args     the arguments referenced by the template
+     */
+    private static void log(Level level, String template, Object[] args) {
+        if (!logger.isLoggable(level)) {
+            return;
+        }
+
+        LogThrottle limiter = throttle;
+        if (limiter != null && !limiter.acquire(level, template)) {
+            return;
+        }
+
+        String message = String.format(template, args);
+        if (limiter != null && !limiter.collapse(LogThrottle.CONSOLE, level, message)) {
+            return;
+        }
+        emit(level, message);
+    }
+
+    /**
+     * Logs a message produced by a supplier unless the level is disabled or the message is suppressed by log throttling.
+     *
+     * @param level   the level to log the message at
+     * @param message the supplier of the message to log
+     */
+    private static void log(Level level, Supplier<String> message) {
+        if (logger.isLoggable(level)) {
+            log(level, message.get());
+        }
+    }
+
+    /**
+     * Logs a message to the server console and the recent log history, bypassing log throttling.
+     *
+     * @param level   the level to log the message at
+     * @param message the message to log
+     */
+    private static void emit(Level level, String message) {
+        logger.log(level, message);
+        record(level, message);
+    }
+
+    /**
+     * Adds a console message to the recent log history, if enabled.
+     *
+     * @param level   the level the message was logged at
+     * @param message the message that was logged
+     */
+    private static void record(Level level, String message) {
+        LogRingBuffer recent = history;
+        if (recent != null) {
+            recent.add(new LogEntry(System.currentTimeMillis(), level, message, true));
+        }
     }
 }
@@ -0,0 +1,114 @@
+package org.example.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.example.util.ColorUtil.translate;
+
+/**
+ * A message template compiled once at load time.
+ * <p>
+ * The raw template is color-translated when it is compiled and split into literal segments and positional placeholders
+ * ({@code {0}}, {@code {1}}, ...). Rendering then only appends the prepared literals and the arguments into a reused
+ * builder. Templates without placeholders are rendered to their precomputed string.
+ */
+public final class MessageTemplate {
+
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(128));
+
+    private final String[] literals;
+    private final int[] placeholders;
+    private final String constant;
+    private final int literalLength;
+
+    private MessageTemplate(String[] literals, int[] placeholders) {
+        this.literals = literals;
+        this.placeholders = placeholders;
+        this.constant = placeholders.length == 0 ? literals[0] : null;
+
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Compiles a raw template.
+     * <p>
+     * A placeholder is a run of digits between braces. Any other brace is kept as literal text.
+     *
+     * @param raw the raw template, using {@code &} color codes and positional placeholders
+     * @return the compiled template
+     */
+    public static MessageTemplate compile(String raw) {
+        String translated = translate(raw);
+        List<String> literals = new ArrayList<>();
+        List<Integer> placeholders = new ArrayList<>();
+
+        int literalStart = 0;
+        int i = 0;
+        while (i < translated.length()) {
+            int end = placeholderEnd(translated, i);
+            if (end < 0) {
+                i++;
+                continue;
+            }
+
+            literals.add(translated.substring(literalStart, i));
+            placeholders.add(Integer.parseInt(translated.substring(i + 1, end)));
+            i = end + 1;
+            literalStart = i;
+        }
+        literals.add(translated.substring(literalStart));
+
+        int[] indexes = new int[placeholders.size()];
+        for (int j = 0; j < indexes.length; j++) {
+            indexes[j] = placeholders.get(j);
+        }
+        return new MessageTemplate(literals.toArray(new String[0]), indexes);
+    }
+
+    /**
+     * Renders the template with the given arguments.
+     * <p>
+     * Arguments are inserted as-is; placeholders without a matching argument are left empty.
+     *
+     * @param args the arguments referenced by the placeholders
+     * @return the rendered message
+     */
+    public String render(Object... args) {
+        if (constant != null) {
+            return constant;
+        }
+
+        StringBuilder builder = BUILDER.get();
+        builder.setLength(0);
+        builder.ensureCapacity(literalLength + 16 * placeholders.length);
+
+        builder.append(literals[0]);
+        for (int i = 0; i < placeholders.length; i++) {
+            int index = placeholders[i];
+            if (index < args.length) {
+                builder.append(args[index]);
+            }
+            builder.append(literals[i + 1]);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Returns the index of the closing brace if a placeholder starts at the given position.
+     */
+    private static int placeholderEnd(String text, int start) {
+        if (text.charAt(start) != '{') {
+            return -1;
+        }
+
+        int i = start + 1;
+        while (i < text.length() && Character.isDigit(text.charAt(i))) {
+            i++;
+        }
+        return i > start + 1 && i < text.length() && text.charAt(i) == '}' && i - start <= 3 ? i : -1;
+    }
+}
@@ -0,0 +1,140 @@
+package org.example.util;
+
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.example.util.LoggerUtil.logInfo;
+import static org.example.util.LoggerUtil.logWarning;
+
+/**
+ * Utility class for the plugin's message catalog.
+ * <p>
+ * Messages are identified by keys such as {@code about.version} and are loaded from the {@code messages.yml} file in
+ * the plugin's data folder through {@link ConfigUtil}. Every message is compiled into a {@link MessageTemplate} once,
+ * with its {@code &} color codes already translated, so sending a message only concatenates its parts.
+ * <p>
+ * The catalog starts out with built-in defaults, which are used for any key missing from the file. Loading or
+ * reloading builds a new immutable snapshot of the catalog and publishes it in a single write, so messages rendered
+ * concurrently never see a partially loaded catalog.
+ */
+public class MessageUtil {
+
+    private static final String FILE_NAME = "messages.yml";
+    private static final int MAX_CACHED_MESSAGES = 256;
+    private static final Map<String, String> DEFAULTS = new HashMap<>();
+
+    static {
+        DEFAULTS.put("about.experimental", "&cRunning an experimental version.");
+        DEFAULTS.put("about.experimental-issues", "&cMay contain bugs or other types of issues.");
+        DEFAULTS.put("about.version", "&e{0} &7version &e{1}");
+        DEFAULTS.put("about.description", "&7{0}");
+        DEFAULTS.put("about.website", "&7Website: &e{0}");
+        DEFAULTS.put("about.authors", "&7Author(s): &e{0}");
+        DEFAULTS.put("access.no-permission", "&c{0}");
+    }
+
+    private static volatile Catalog catalog = new Catalog(DEFAULTS);
+
+    /**
+     * Loads the message catalog from the {@code messages.yml} file in the plugin's data folder.
+     * <p>
+     * The file is created from the plugin's resources if it does not exist. Keys missing from the file keep their
+     * built-in defaults. The new catalog replaces the current one atomically, so this method can also be used to
+     * reload the catalog while the plugin is running.
+     *
+     * @param plugin the plugin instance whose data folder holds the messages file
+     */
+    public static void loadMessages(JavaPlugin plugin) {
+        ConfigUtil config = new ConfigUtil(plugin, FILE_NAME);
+        config.load();
+
+        Map<String, String> messages = new HashMap<>(DEFAULTS);
+        for (Map.Entry<String, Object> entry : config.getAll().entrySet()) {
+            if (entry.getValue() instanceof String) {
+                messages.put(entry.getKey(), (String) entry.getValue());
+            } else if (entry.getValue() != null) {
+                logWarning("[%s] Message '%s' in '%s' is not text and was ignored.", plugin.getDescription().getName(), entry.getKey(), FILE_NAME);
+            }
+        }
+
+        catalog = new Catalog(messages);
+        logInfo("[%s] Loaded %d messages from '%s'.", plugin.getDescription().getName(), messages.size(), FILE_NAME);
+    }
+
+    /**
+     * Renders the message with the given key.
+     * <p>
+     * Arguments replace the {@code {0}}, {@code {1}}, ... placeholders of the message as-is; they are not
+     * color-translated.
+     *
+     * @param key  the key of the message
+     * @param args the arguments referenced by the message's placeholders
+     * @return the rendered message, or the key itself if no such message exists
+     */
+    public static String message(String key, Object... args) {
+        MessageTemplate template = catalog.templates.get(key);
+        return template != null ? template.render(args) : key;
+    }
+
+    /**
+     * Returns the compiled template of the message with the given key.
+     * <p>
+     * Callers rendering the same message repeatedly can keep the template, but should fetch it again after the
+     * catalog is reloaded.
+     *
+     * @param key the key of the message
+     * @return the compiled template, or {@code null} if no such message exists
+     */
+    public static MessageTemplate template(String key) {
+        return catalog.templates.get(key);
+    }
+
+    /**
+     * Renders a message whose single argument is a color-coded constant, reusing the result of earlier calls.
+     * <p>
+     * The argument is color-translated before it is inserted. Results are cached per catalog snapshot, so this is
+     * meant for arguments drawn from a small set of constants, such as the denial messages passed to
+     * {@link AccessUtil#hasPermission(org.bukkit.command.CommandSender, String, String)}.
+     *
+     * @param key      the key of the message
+     * @param constant the argument, using {@code &} color codes
+     * @return the rendered message
+     */
+    static String cachedMessage(String key, String constant) {
+        Catalog current = catalog;
+        Map<String, String> cache = current.rendered.get(key);
+        String rendered = cache != null ? cache.get(constant) : null;
+        if (rendered != null) {
+            return rendered;
+        }
+
+        rendered = message(key, ColorUtil.translate(constant));
+        if (current.renderedCount.incrementAndGet() <= MAX_CACHED_MESSAGES) {
+            current.rendered.computeIfAbsent(key, k -> new ConcurrentHashMap<>()).put(constant, rendered);
+        }
+        return rendered;
+    }
+
+    /**
+     * Immutable snapshot of the compiled catalog, together with the messages rendered from it so far.
+     */
+    private static final class Catalog {
+
+        private final Map<String, MessageTemplate> templates;
+        private final Map<String, Map<String, String>> rendered = new ConcurrentHashMap<>();
+        private final AtomicInteger renderedCount = new AtomicInteger();
+
+        private Catalog(Map<String, String> messages) {
+            Map<String, MessageTemplate> compiled = new HashMap<>();
+            for (Map.Entry<String, String> entry : messages.entrySet()) {
+                compiled.put(entry.getKey(), MessageTemplate.compile(entry.getValue()));
+            }
+            this.templates = Collections.unmodifiableMap(compiled);
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package org.example.util;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+import static org.bukkit.Bukkit.getServer;
+import static org.example.util.ColorUtil.strip;
+import static org.example.util.ColorUtil.translate;
+import static org.example.util.LoggerUtil.logSevere;
+
+/**
+ * Utility class for measuring how often and how long the plugin's operations run.
+ * <p>
+ * Metrics are {@link LongAdder} counters and {@link LatencyHistogram}s, registered by name and shared by all threads
+ * without locking. The utility classes of this package record the latency of {@link LoggerUtil#writeToLog},
+ * {@link AccessUtil#hasPermission}, {@link ColorUtil#translate(String)}, {@link ConfigUtil#load()},
+ * {@link ConfigUtil#saveConfig()}, {@link UpdateUtil#checkForUpdates} and the work run per tick by
+ * {@link TickScheduler}. Plugins can register their own metrics with
+ * {@link #counter(String)} and {@link #histogram(String)}.
+ * <p>
+ * Instrumentation is disabled by default. While it is disabled, an instrumented method costs a single branch on
+ * {@link #isEnabled()} and records nothing.
+ * <p>
+ * The current metrics can be shown with {@link #sendMetrics(CommandSender, String[])} and written to a file in the
+ * plugin's data folder periodically with {@link #enableMetricsDump(JavaPlugin, long)}.
+ */
+public class MetricsUtil {
+
+    private static final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private static final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    static final LatencyHistogram LOG_WRITE = histogram("logger.writeToLog");
+    static final LatencyHistogram PERMISSION_CHECK = histogram("access.hasPermission");
+    static final LatencyHistogram COLOR_TRANSLATE = histogram("color.translate");
+    static final LatencyHistogram CONFIG_LOAD = histogram("config.load");
+    static final LatencyHistogram CONFIG_SAVE = histogram("config.save");
+    static final LatencyHistogram UPDATE_CHECK = histogram("update.checkForUpdates");
+    static final LatencyHistogram TICK_WORK = histogram("scheduler.tick");
+
+    private static final String DUMP_FILE_NAME = "metrics.txt";
+    private static final DateTimeFormatter DUMP_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static volatile boolean enabled;
+    private static volatile long resetNanos = System.nanoTime();
+
+    private static ScheduledThreadPoolExecutor dumpExecutor;
+    private static ScheduledFuture<?> dumpTask;
+
+    /**
+     * Enables instrumentation of the utility classes and any metrics recorded through {@link #isEnabled()} checks.
+     */
+    public static void enableMetrics() {
+        if (!enabled) {
+            resetMetrics();
+            enabled = true;
+        }
+    }
+
+    /**
+     * Disables instrumentation. Recorded metrics are kept until they are reset.
+     */
+    public static void disableMetrics() {
+        enabled = false;
+    }
+
+    /**
+     * Returns whether instrumentation is enabled.
+     * <p>
+     * Instrumented code should check this once and skip all measuring when it returns {@code false}.
+     *
+     * @return {@code true} if metrics are being recorded; {@code false} otherwise
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the counter registered under a name, registering it if there is none.
+     *
+     * @param name the name of the counter, e.g. "shop.purchases"
+     * @return the counter
+     */
+    public static LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    /**
+     * Returns the histogram registered under a name, registering it if there is none.
+     *
+     * @param name the name of the histogram, e.g. "shop.purchase"
+     * @return the histogram
+     */
+    public static LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, LatencyHistogram::new);
+    }
+
+    /**
+     * Clears all counters and histograms and restarts the period that rates are measured over.
+     */
+    public static void resetMetrics() {
+        for (LongAdder counter : counters.values()) {
+            counter.reset();
+        }
+        for (LatencyHistogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+        resetNanos = System.nanoTime();
+    }
+
+    /**
+     * Formats every metric that has recorded anything since the last reset, one line per metric.
+     * <p>
+     * Counters are shown with their count and rate per second. Histograms are additionally shown with the average,
+     * 50th, 95th and 99th percentile and maximum duration.
+     *
+     * @return the formatted lines, sorted by metric name
+     */
+    public static List<String> report() {
+        double seconds = Math.max(1e-9, (System.nanoTime() - resetNanos) / 1e9);
+        List<String> lines = new ArrayList<>();
+
+        for (Map.Entry<String, LongAdder> entry : new TreeMap<>(counters).entrySet()) {
+            long count = entry.getValue().sum();
+            if (count > 0) {
+                lines.add(String.format(Locale.ROOT, "%s: count=%d rate=%.2f/s", entry.getKey(), count, count / seconds));
+            }
+        }
+
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(histograms).entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            long count = histogram.getCount();
+            if (count > 0) {
+                lines.add(String.format(Locale.ROOT, "%s: count=%d rate=%.2f/s avg=%s p50=%s p95=%s p99=%s max=%s",
+                        entry.getKey(), count, count / seconds,
+                        formatNanos(histogram.getAverageNanos()),
+                        formatNanos(histogram.getPercentileNanos(50)),
+                        formatNanos(histogram.getPercentileNanos(95)),
+                        formatNanos(histogram.getPercentileNanos(99)),
+                        formatNanos(histogram.getMaxNanos())));
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Sends the current metrics to the command sender.
+     * <p>
+     * Expects the optional argument {@code reset}, which clears all metrics after they have been sent. If metrics are
+     * disabled, the sender is only told so. This method is meant as the handler of an admin command declared by the
+     * plugin, such as {@code /metrics [reset]}; permission checks are left to the calling command, typically through
+     * {@link AccessUtil}.
+     *
+     * @param sender the command sender who will receive the metrics; can be a player or console
+     * @param args   the command arguments
+     */
+    public static void sendMetrics(CommandSender sender, String[] args) {
+        if (!enabled) {
+            send(sender, "&7Metrics are disabled.");
+            return;
+        }
+
+        List<String> lines = report();
+        if (lines.isEmpty()) {
+            send(sender, "&7No metrics have been recorded yet.");
+        } else {
+            send(sender, String.format(Locale.ROOT, "&7Metrics of the last &e%d &7seconds:", TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - resetNanos)));
+            for (String line : lines) {
+                int separator = line.indexOf(':');
+                send(sender, "&e" + line.substring(0, separator) + "&f" + line.substring(separator));
+            }
+        }
+
+        if (args.length > 0 && args[0].equalsIgnoreCase("reset")) {
+            resetMetrics();
+            send(sender, "&7Metrics have been reset.");
+        }
+    }
+
+    /**
+     * Writes the current metrics to {@code metrics.txt} in the plugin's data folder at a fixed interval.
+     * <p>
+     * Each dump replaces the previous one through a temporary file and an atomic rename, on a background thread.
+     *
+     * @param plugin         the plugin whose data folder receives the file
+     * @param intervalMillis the interval between dumps in milliseconds
+     */
+    public static synchronized void enableMetricsDump(JavaPlugin plugin, long intervalMillis) {
+        if (intervalMillis < 1) {
+            throw new IllegalArgumentException("Dump interval must be positive.");
+        }
+
+        disableMetricsDump();
+        if (dumpExecutor == null) {
+            dumpExecutor = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "MetricsUtil-Dump");
+                thread.setDaemon(true);
+                return thread;
+            });
+            dumpExecutor.setRemoveOnCancelPolicy(true);
+        }
+
+        File file = new File(plugin.getDataFolder(), DUMP_FILE_NAME);
+        String pluginName = plugin.getDescription().getName();
+        dumpTask = dumpExecutor.scheduleAtFixedRate(() -> {
+            try {
+                dump(file);
+            } catch (IOException e) {
+                logSevere("[%s] Failed to write metrics to '%s': %s", pluginName, file.getName(), e.getMessage());
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops writing metrics to the data folder.
+     */
+    public static synchronized void disableMetricsDump() {
+        if (dumpTask != null) {
+            dumpTask.cancel(false);
+            dumpTask = null;
+        }
+    }
+
+    private static void dump(File file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("# Metrics at " + LocalDateTime.now().format(DUMP_TIME) + " over "
+                + TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - resetNanos) + " seconds");
+        lines.addAll(report());
+
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Could not create " + parent);
+        }
+
+        Path target = file.toPath();
+        Path temp = target.resolveSibling(file.getName() + ".tmp");
+        Files.write(temp, lines, StandardCharsets.UTF_8);
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static String formatNanos(long nanos) {
+        if (nanos < 10_000) {
+            return nanos + "ns";
+        }
+        if (nanos < 10_000_000) {
+            return String.format(Locale.ROOT, "%.1fus", nanos / 1e3);
+        }
+        return String.format(Locale.ROOT, "%.1fms", nanos / 1e6);
+    }
+
+    /**
+     * Sends a message to the command sender, translating color codes for players and stripping them for the console.
+     *
+     * @param sender  the command sender to receive the message
+     * @param message the message to send
+     */
+    private static void send(CommandSender sender, String message) {
+        if (sender instanceof Player) {
+            sender.sendMessage(translate(message));
+        } else {
+            Logger logger = getServer().getLogger();
+            logger.info(strip(message));
+        }
+    }
+}
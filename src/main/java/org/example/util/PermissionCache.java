@@ -0,0 +1,248 @@
+package org.example.util;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.player.PlayerCommandPreprocessEvent;
+import org.bukkit.event.player.PlayerKickEvent;
+import org.bukkit.event.player.PlayerListener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of permission decisions, keyed by player and permission node.
+ * <p>
+ * A decision combines {@link Player#hasPermission(String)} and {@link Player#isOp()}, exactly as
+ * {@link AccessUtil#hasPermission(org.bukkit.command.CommandSender, String)} does, and is kept until its time to live
+ * expires. The decisions of a player are dropped when the player quits or is kicked, and when the player is the target
+ * of an {@code /op} or {@code /deop} command issued in-game. Once the cache holds its maximum number of decisions,
+ * expired decisions are purged, and if that does not free any room, new decisions are not cached until some expire.
+ * <p>
+ * <b>Note:</b> Instances are created and managed by {@link AccessUtil#enablePermissionCache(JavaPlugin, int, long)}.
+ */
+final class PermissionCache {
+
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Decision>> players = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final int maxEntries;
+    private final long ttlNanos;
+    private volatile boolean active = true;
+
+    /**
+     * Constructs a new cache.
+     *
+     * @param maxEntries the maximum number of decisions kept across all players
+     * @param ttlMillis  the time in milliseconds after which a decision is checked again
+     */
+    PermissionCache(int maxEntries, long ttlMillis) {
+        if (maxEntries < 1 || ttlMillis < 1) {
+            throw new IllegalArgumentException("Maximum entries and time to live must be positive.");
+        }
+
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    /**
+     * Registers the listener that invalidates decisions on quit, kick and operator changes.
+     * <p>
+     * Bukkit cannot unregister listeners, so the listener stops acting once the cache is {@link #close() closed}.
+     *
+     * @param plugin the plugin to register the listener for
+     */
+    void register(JavaPlugin plugin) {
+        Invalidator invalidator = new Invalidator(plugin);
+        plugin.getServer().getPluginManager().registerEvent(Event.Type.PLAYER_QUIT, invalidator, Event.Priority.Monitor, plugin);
+        plugin.getServer().getPluginManager().registerEvent(Event.Type.PLAYER_KICK, invalidator, Event.Priority.Monitor, plugin);
+        plugin.getServer().getPluginManager().registerEvent(Event.Type.PLAYER_COMMAND_PREPROCESS, invalidator, Event.Priority.Monitor, plugin);
+    }
+
+    /**
+     * Returns the cached decision for the player and node, checking and caching it if there is none.
+     *
+     * @param player     the player to check
+     * @param permission the permission node to check
+     * @return {@code true} if the player has the permission or is an operator; {@code false} otherwise
+     */
+    boolean check(Player player, String permission) {
+        long now = System.nanoTime();
+        String name = key(player.getName());
+        ConcurrentHashMap<String, Decision> decisions = players.get(name);
+        Decision decision = decisions != null ? decisions.get(permission) : null;
+        if (decision != null && now - decision.checkedAt < ttlNanos) {
+            hits.increment();
+            return decision.allowed;
+        }
+
+        misses.increment();
+        boolean allowed = player.hasPermission(permission) || player.isOp();
+        int reserved = decision == null ? 1 : 0;
+        if (reserved == 1 && !reserve(now)) {
+            return allowed;
+        }
+
+        // The decision is stored while the player's entry is locked, so that it cannot land in a map that is being
+        // removed, and the size is corrected if the decision was added or replaced other than expected
+        Decision checked = new Decision(allowed, now);
+        players.compute(name, (k, current) -> {
+            ConcurrentHashMap<String, Decision> updated = current != null ? current : new ConcurrentHashMap<>();
+            int added = updated.put(permission, checked) == null ? 1 : 0;
+            if (added != reserved) {
+                size.addAndGet(added - reserved);
+            }
+            return updated;
+        });
+        return allowed;
+    }
+
+    /**
+     * Drops all decisions of the player with the given name.
+     *
+     * @param playerName the name of the player
+     */
+    void invalidate(String playerName) {
+        Map<String, Decision> decisions = players.remove(key(playerName));
+        if (decisions != null) {
+            size.addAndGet(-decisions.size());
+        }
+    }
+
+    /**
+     * Drops all decisions.
+     */
+    void invalidateAll() {
+        for (String name : players.keySet()) {
+            invalidate(name);
+        }
+    }
+
+    /**
+     * Drops all decisions and stops the listener from acting on events.
+     */
+    void close() {
+        active = false;
+        invalidateAll();
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+
+    long getMisses() {
+        return misses.sum();
+    }
+
+    int size() {
+        return Math.max(0, size.get());
+    }
+
+    /**
+     * Reserves room for a new decision, purging expired decisions if the cache is full.
+     *
+     * @return {@code true} if the decision may be cached, {@code false} if the cache is full
+     */
+    private boolean reserve(long now) {
+        if (size.incrementAndGet() <= maxEntries) {
+            return true;
+        }
+        size.decrementAndGet();
+
+        purgeExpired(now);
+        if (size.incrementAndGet() <= maxEntries) {
+            return true;
+        }
+        size.decrementAndGet();
+        return false;
+    }
+
+    private void purgeExpired(long now) {
+        for (String name : players.keySet()) {
+            players.computeIfPresent(name, (k, decisions) -> {
+                Iterator<Decision> iterator = decisions.values().iterator();
+                while (iterator.hasNext()) {
+                    if (now - iterator.next().checkedAt >= ttlNanos) {
+                        iterator.remove();
+                        size.decrementAndGet();
+                    }
+                }
+                return decisions.isEmpty() ? null : decisions;
+            });
+        }
+    }
+
+    private static String key(String playerName) {
+        return playerName.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A single cached decision.
+     */
+    private static final class Decision {
+
+        private final boolean allowed;
+        private final long checkedAt;
+
+        private Decision(boolean allowed, long checkedAt) {
+            this.allowed = allowed;
+            this.checkedAt = checkedAt;
+        }
+    }
+
+    /**
+     * Invalidates decisions when players leave and when operator status is changed from in-game commands.
+     */
+    private final class Invalidator extends PlayerListener {
+
+        private final JavaPlugin plugin;
+
+        private Invalidator(JavaPlugin plugin) {
+            this.plugin = plugin;
+        }
+
+        @Override
+        public void onPlayerQuit(PlayerQuitEvent event) {
+            if (active) {
+                invalidate(event.getPlayer().getName());
+            }
+        }
+
+        @Override
+        public void onPlayerKick(PlayerKickEvent event) {
+            if (active) {
+                invalidate(event.getPlayer().getName());
+            }
+        }
+
+        /**
+         * Invalidates the target of {@code /op} and {@code /deop}, both right away and again on the next tick, after
+         * the command has taken effect.
+         */
+        @Override
+        public void onPlayerCommandPreprocess(PlayerCommandPreprocessEvent event) {
+            if (!active || event.isCancelled()) {
+                return;
+            }
+
+            String[] parts = event.getMessage().trim().split("\\s+");
+            if (parts.length < 2) {
+                return;
+            }
+
+            String command = parts[0].toLowerCase(Locale.ROOT);
+            if (command.equals("/op") || command.equals("/deop")) {
+                String target = parts[1];
+                invalidate(target);
+                plugin.getServer().getScheduler().scheduleSyncDelayedTask(plugin, () -> invalidate(target), 1L);
+            }
+        }
+    }
+}
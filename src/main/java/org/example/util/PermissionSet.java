@@ -0,0 +1,230 @@
+package org.example.util;
+
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A set of permission nodes compiled once for bulk evaluation through
+ * {@link AccessUtil#hasPermissions(org.bukkit.command.CommandSender, PermissionSet, BitSet)}.
+ * <p>
+ * The nodes are arranged in a trie by their dot-separated segments, which is flattened into arrays in depth-first
+ * order. Operators are granted every node after a single check. For other players, a node that is set on the player,
+ * whether granted or explicitly negated, decides on its own, so {@code plugin.debug: false} is respected even if
+ * {@code plugin.*} is granted. Only for a node that is not set are the wildcards above it consulted, nearest first
+ * (such as {@code plugin.admin.*}, then {@code plugin.*}, then {@code *}), and the first wildcard that is set decides.
+ * Each wildcard is looked up at most once per evaluation, and only if a node beneath it needs it. A node that neither
+ * it nor any wildcard above it decides gets the permission's default. A node equal to a prefix itself
+ * ({@code plugin}) is not covered by that prefix's wildcard. Result bit {@code i} belongs to the {@code i}-th node
+ * passed to {@link #compile(String...)}.
+ * <p>
+ * <b>Example:</b>
+ * <pre>{@code
+ * private static final PermissionSet ADMIN = PermissionSet.compile("plugin.reload", "plugin.debug", "plugin.tp");
+ * private final BitSet results = new BitSet();
+ *
+ * AccessUtil.hasPermissions(sender, ADMIN, results);
+ * if (ADMIN.anyOf(results)) { ... }
+ * }</pre>
+ * Instances are immutable and can be shared between threads; the result {@link BitSet} is owned by the caller.
+ * Evaluations keep their intermediate state in a scratch array per thread, so with a reused result set they do not
+ * allocate.
+ */
+public final class PermissionSet {
+
+    private final String[] nodes;
+
+    private static final byte UNRESOLVED = 0;
+    private static final byte GRANTED = 1;
+    private static final byte DENIED = 2;
+    private static final byte UNSET = 3;
+
+    /**
+     * Wildcard states of the evaluation running on the current thread, grown to the largest set evaluated on it.
+     */
+    private static final ThreadLocal<byte[]> scratch = ThreadLocal.withInitial(() -> new byte[16]);
+
+    /**
+     * Trie nodes in depth-first order. For trie node {@code t}, {@code wildcards[t]} is its wildcard permission or
+     * {@code null} if nothing lies beneath it, {@code permissions[t]} is the permission it stands for or {@code null},
+     * {@code order[from[t]]} to {@code order[from[t] + own[t] - 1]} are the result bits of that permission, and
+     * {@code parents[t]} is the trie node above it, or {@code -1} for the root.
+     */
+    private final String[] wildcards;
+    private final String[] permissions;
+    private final int[] from;
+    private final int[] own;
+    private final int[] parents;
+    private final int[] order;
+
+    private PermissionSet(String[] nodes, Trie root) {
+        this.nodes = nodes;
+
+        List<Trie> flat = new ArrayList<>();
+        root.flatten(flat);
+        int count = flat.size();
+        this.wildcards = new String[count];
+        this.permissions = new String[count];
+        this.from = new int[count];
+        this.own = new int[count];
+        this.parents = new int[count];
+        this.order = new int[nodes.length];
+
+        int bit = 0;
+        for (int t = 0; t < count; t++) {
+            Trie trie = flat.get(t);
+            wildcards[t] = trie.children.isEmpty() ? null : (trie.path.isEmpty() ? "*" : trie.path + ".*");
+            permissions[t] = trie.indexes.isEmpty() ? null : trie.path;
+            parents[t] = trie.parent != null ? trie.parent.position : -1;
+            from[t] = bit;
+            own[t] = trie.indexes.size();
+            for (int index : trie.indexes) {
+                order[bit++] = index;
+            }
+        }
+    }
+
+    /**
+     * Compiles the given permission nodes into a set.
+     *
+     * @param nodes the permission nodes, in the order of their result bits
+     * @return the compiled set
+     */
+    public static PermissionSet compile(String... nodes) {
+        Trie root = new Trie("", null);
+        for (int i = 0; i < nodes.length; i++) {
+            Trie trie = root;
+            for (String segment : nodes[i].split("\\.")) {
+                Trie parent = trie;
+                String path = parent.path.isEmpty() ? segment : parent.path + "." + segment;
+                trie = parent.children.computeIfAbsent(segment, k -> new Trie(path, parent));
+            }
+            trie.indexes.add(i);
+        }
+        return new PermissionSet(nodes.clone(), root);
+    }
+
+    /**
+     * Returns the number of permission nodes in this set.
+     *
+     * @return the number of nodes
+     */
+    public int size() {
+        return nodes.length;
+    }
+
+    /**
+     * Returns the permission node with the given result bit.
+     *
+     * @param index the result bit of the node
+     * @return the permission node
+     */
+    public String node(int index) {
+        return nodes[index];
+    }
+
+    /**
+     * Returns whether any node of this set was granted in the given results.
+     *
+     * @param results the results of an evaluation of this set
+     * @return {@code true} if at least one node was granted; {@code false} otherwise
+     */
+    public boolean anyOf(BitSet results) {
+        int first = results.nextSetBit(0);
+        return first >= 0 && first < nodes.length;
+    }
+
+    /**
+     * Returns whether every node of this set was granted in the given results.
+     *
+     * @param results the results of an evaluation of this set
+     * @return {@code true} if all nodes were granted; {@code false} otherwise
+     */
+    public boolean allOf(BitSet results) {
+        return results.nextClearBit(0) >= nodes.length;
+    }
+
+    /**
+     * Evaluates this set for a player, replacing the given results.
+     * <p>
+     * The wildcard states are kept in a scratch array owned by the calling thread, so that an evaluation does not
+     * allocate once the thread has evaluated a set of this size.
+     *
+     * @param player  the player to check
+     * @param results the bit set receiving the results
+     */
+    void evaluate(Player player, BitSet results) {
+        results.clear();
+        if (player.isOp()) {
+            results.set(0, nodes.length);
+            return;
+        }
+
+        byte[] states = scratch.get();
+        if (states.length < wildcards.length) {
+            states = new byte[Math.max(wildcards.length, states.length * 2)];
+            scratch.set(states);
+        } else {
+            Arrays.fill(states, 0, wildcards.length, UNRESOLVED);
+        }
+        for (int t = 0; t < permissions.length; t++) {
+            if (permissions[t] != null && isGranted(player, t, states)) {
+                for (int bit = from[t]; bit < from[t] + own[t]; bit++) {
+                    results.set(order[bit]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Decides the permission of a trie node from the node itself if it is set, and otherwise from the nearest wildcard
+     * above it that is set, resolving wildcards into {@code states} as they are needed.
+     */
+    private boolean isGranted(Player player, int t, byte[] states) {
+        String permission = permissions[t];
+        if (player.isPermissionSet(permission)) {
+            return player.hasPermission(permission);
+        }
+
+        for (int parent = parents[t]; parent >= 0; parent = parents[parent]) {
+            if (states[parent] == UNRESOLVED) {
+                String wildcard = wildcards[parent];
+                states[parent] = !player.isPermissionSet(wildcard) ? UNSET : player.hasPermission(wildcard) ? GRANTED : DENIED;
+            }
+            if (states[parent] != UNSET) {
+                return states[parent] == GRANTED;
+            }
+        }
+        return player.hasPermission(permission);
+    }
+
+    /**
+     * A node of the trie used while compiling.
+     */
+    private static final class Trie {
+
+        private final String path;
+        private final Trie parent;
+        private final Map<String, Trie> children = new TreeMap<>();
+        private final List<Integer> indexes = new ArrayList<>(1);
+        private int position;
+
+        private Trie(String path, Trie parent) {
+            this.path = path;
+            this.parent = parent;
+        }
+
+        private void flatten(List<Trie> flat) {
+            position = flat.size();
+            flat.add(this);
+            for (Trie child : children.values()) {
+                child.flatten(flat);
+            }
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package org.example.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The stored values of a single player, held in memory by a {@link PlayerDataCache}.
+ * <p>
+ * Values are strings, integers, longs, doubles and booleans, stored by key. All methods are thread-safe. Every change
+ * marks the data as dirty, and the cache writes dirty data back to its {@link DataStore} in the background.
+ * <p>
+ * <b>Note:</b> Instances are created and managed by {@link PlayerDataCache}.
+ */
+public final class PlayerData {
+
+    private static final byte STRING = 0;
+    private static final byte INTEGER = 1;
+    private static final byte LONG = 2;
+    private static final byte DOUBLE = 3;
+    private static final byte BOOLEAN = 4;
+
+    private static final int ENTRY_BYTES = 64;
+    private static final int MIN_ENCODED_ENTRY_BYTES = Integer.BYTES + 2;
+
+    private final String playerName;
+    private final Map<String, Object> values;
+    private long version;
+    private long savedVersion;
+    private int estimatedBytes;
+
+    private PlayerData(String playerName, Map<String, Object> values) {
+        this.playerName = playerName;
+        this.values = values;
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            estimatedBytes += estimate(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Returns the name of the player this data belongs to.
+     *
+     * @return the player's name
+     */
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    /**
+     * Returns the value stored for a key.
+     *
+     * @param key the key
+     * @return the value, or {@code null} if the key is not present
+     */
+    public synchronized Object get(String key) {
+        return values.get(key);
+    }
+
+    /**
+     * Returns the string stored for a key.
+     *
+     * @param key          the key
+     * @param defaultValue the value to return if the key is not present
+     * @return the value as a string, or {@code defaultValue} if the key is not present
+     */
+    public synchronized String getString(String key, String defaultValue) {
+        Object value = values.get(key);
+        return value != null ? value.toString() : defaultValue;
+    }
+
+    /**
+     * Returns the integer stored for a key.
+     *
+     * @param key          the key
+     * @param defaultValue the value to return if the key is not present or not a number
+     * @return the value as an integer, or {@code defaultValue}
+     */
+    public synchronized int getInt(String key, int defaultValue) {
+        Object value = values.get(key);
+        return value instanceof Number ? ((Number) value).intValue() : defaultValue;
+    }
+
+    /**
+     * Returns the long stored for a key.
+     *
+     * @param key          the key
+     * @param defaultValue the value to return if the key is not present or not a number
+     * @return the value as a long, or {@code defaultValue}
+     */
+    public synchronized long getLong(String key, long defaultValue) {
+        Object value = values.get(key);
+        return value instanceof Number ? ((Number) value).longValue() : defaultValue;
+    }
+
+    /**
+     * Returns the double stored for a key.
+     *
+     * @param key          the key
+     * @param defaultValue the value to return if the key is not present or not a number
+     * @return the value as a double, or {@code defaultValue}
+     */
+    public synchronized double getDouble(String key, double defaultValue) {
+        Object value = values.get(key);
+        return value instanceof Number ? ((Number) value).doubleValue() : defaultValue;
+    }
+
+    /**
+     * Returns the boolean stored for a key.
+     *
+     * @param key          the key
+     * @param defaultValue the value to return if the key is not present or not a boolean
+     * @return the value as a boolean, or {@code defaultValue}
+     */
+    public synchronized boolean getBoolean(String key, boolean defaultValue) {
+        Object value = values.get(key);
+        return value instanceof Boolean ? (Boolean) value : defaultValue;
+    }
+
+    /**
+     * Returns whether a value is stored for a key.
+     *
+     * @param key the key
+     * @return {@code true} if the key is present; {@code false} otherwise
+     */
+    public synchronized boolean contains(String key) {
+        return values.containsKey(key);
+    }
+
+    /**
+     * Returns the keys of all stored values.
+     *
+     * @return a copy of the keys
+     */
+    public synchronized Set<String> getKeys() {
+        return new HashSet<>(values.keySet());
+    }
+
+    /**
+     * Stores a value for a key, or removes the key if the value is {@code null}.
+     *
+     * @param key   the key
+     * @param value a {@link String}, {@link Integer}, {@link Long}, {@link Double} or {@link Boolean}, or {@code null}
+     * @throws IllegalArgumentException if the value is of another type
+     */
+    public synchronized void set(String key, Object value) {
+        if (value != null && !(value instanceof String || value instanceof Integer || value instanceof Long
+                || value instanceof Double || value instanceof Boolean)) {
+            throw new IllegalArgumentException("Unsupported player data type: " + value.getClass().getName());
+        }
+
+        Object previous = value != null ? values.put(key, value) : values.remove(key);
+        if (previous == null && value == null) {
+            return;
+        }
+        if (previous != null) {
+            estimatedBytes -= estimate(key, previous);
+        }
+        if (value != null) {
+            estimatedBytes += estimate(key, value);
+        }
+        version++;
+    }
+
+    /**
+     * Removes the value stored for a key.
+     *
+     * @param key the key
+     */
+    public void remove(String key) {
+        set(key, null);
+    }
+
+    synchronized boolean isDirty() {
+        return version != savedVersion;
+    }
+
+    synchronized long getVersion() {
+        return version;
+    }
+
+    synchronized int getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    /**
+     * Records that the data was written to the store as of the given version.
+     *
+     * @param savedVersion the version returned by {@link #getVersion()} when the data was encoded
+     */
+    synchronized void markSaved(long savedVersion) {
+        if (savedVersion > this.savedVersion) {
+            this.savedVersion = savedVersion;
+        }
+    }
+
+    /**
+     * Encodes the values as {@code [int count]} followed by {@code [int keyLength][UTF-8 key][byte type][value]} per
+     * value, with strings stored as a length and UTF-8 bytes.
+     *
+     * @return the encoded values
+     */
+    synchronized byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(32, estimatedBytes));
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(values.size());
+            for (Map.Entry<String, Object> entry : values.entrySet()) {
+                writeString(out, entry.getKey());
+                Object value = entry.getValue();
+                if (value instanceof String) {
+                    out.writeByte(STRING);
+                    writeString(out, (String) value);
+                } else if (value instanceof Integer) {
+                    out.writeByte(INTEGER);
+                    out.writeInt((Integer) value);
+                } else if (value instanceof Long) {
+                    out.writeByte(LONG);
+                    out.writeLong((Long) value);
+                } else if (value instanceof Double) {
+                    out.writeByte(DOUBLE);
+                    out.writeDouble((Double) value);
+                } else {
+                    out.writeByte(BOOLEAN);
+                    out.writeBoolean((Boolean) value);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Creates empty data for a player who has none stored yet.
+     *
+     * @param playerName the player's name
+     * @return the empty data
+     */
+    static PlayerData empty(String playerName) {
+        return new PlayerData(playerName, new HashMap<>());
+    }
+
+    /**
+     * Restores data encoded by {@link #encode()}.
+     *
+     * @param playerName the player's name
+     * @param encoded    the encoded values
+     * @return the restored data
+     * @throws IOException if the encoded values are malformed
+     */
+    static PlayerData decode(String playerName, byte[] encoded) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded))) {
+            // Every entry takes at least a key length, a type and a one-byte value, which bounds the count
+            int count = in.readInt();
+            if (count < 0 || count > in.available() / MIN_ENCODED_ENTRY_BYTES) {
+                throw new IOException("Malformed player data count");
+            }
+            Map<String, Object> values = new HashMap<>(Math.max(16, count * 2));
+            for (int i = 0; i < count; i++) {
+                String key = readString(in);
+                byte type = in.readByte();
+                switch (type) {
+                    case STRING:
+                        values.put(key, readString(in));
+                        break;
+                    case INTEGER:
+                        values.put(key, in.readInt());
+                        break;
+                    case LONG:
+                        values.put(key, in.readLong());
+                        break;
+                    case DOUBLE:
+                        values.put(key, in.readDouble());
+                        break;
+                    case BOOLEAN:
+                        values.put(key, in.readBoolean());
+                        break;
+                    default:
+                        throw new IOException("Unknown player data type " + type);
+                }
+            }
+            return new PlayerData(playerName, values);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > in.available()) {
+            throw new IOException("Malformed player data string");
+        }
+        byte[] utf8 = new byte[length];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Roughly estimates the heap used by a value and its key.
+     */
+    private static int estimate(String key, Object value) {
+        int valueBytes = value instanceof String ? 40 + 2 * ((String) value).length() : 16;
+        return ENTRY_BYTES + 40 + 2 * key.length() + valueBytes;
+    }
+}
@@ -0,0 +1,441 @@
+package org.example.util;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerKickEvent;
+import org.bukkit.event.player.PlayerListener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.example.util.LoggerUtil.logSevere;
+
+/**
+ * In-memory cache of per-player data, backed by a {@link DataStore}.
+ * <p>
+ * The data of a player is loaded on a background thread as soon as the player joins, so that event handlers can read
+ * and change it from memory afterwards. Changed data is written back to the store in the background, in batches on a
+ * fixed interval, and for a single player right after the player quits or is kicked. Every batch is forced to disk
+ * once, after all of its writes.
+ * <p>
+ * The data of offline players stays cached until the estimated memory used by the cache exceeds its limit. The least
+ * recently used offline players with no unsaved changes are then evicted first. The data of online players is never
+ * evicted. Since changes to evicted data are not saved, the data of offline players should be fetched again for every
+ * task rather than kept.
+ * <p>
+ * <b>Note:</b> Call {@link #enable()} from the plugin's {@code onEnable} method and {@link #disable()} from its
+ * {@code onDisable} method, which writes all unsaved changes before the store is closed.
+ */
+public final class PlayerDataCache {
+
+    private static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 30000;
+    private static final int ENTRY_BYTES = 128;
+
+    private static final ScheduledThreadPoolExecutor executor = createExecutor();
+
+    private final JavaPlugin plugin;
+    private final String pluginName;
+    private final DataStore store;
+    private final long maxBytes;
+    private final Executor mainThread;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long flushIntervalMillis = DEFAULT_FLUSH_INTERVAL_MILLIS;
+    private ScheduledFuture<?> flushTask;
+    private volatile boolean active;
+    private boolean listenerRegistered;
+
+    /**
+     * Constructs a new player data cache for a store file in the plugin's data folder.
+     *
+     * @param plugin   the plugin instance owning the data
+     * @param fileName the name of the store file (e.g., "players.db")
+     * @param maxBytes the estimated memory in bytes above which offline players are evicted
+     */
+    public PlayerDataCache(JavaPlugin plugin, String fileName, long maxBytes) {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("Memory limit must be positive.");
+        }
+
+        this.plugin = plugin;
+        this.pluginName = plugin.getDescription().getName();
+        this.store = new DataStore(plugin, fileName);
+        this.maxBytes = maxBytes;
+        this.mainThread = task -> plugin.getServer().getScheduler().scheduleSyncDelayedTask(plugin, task);
+    }
+
+    /**
+     * Sets the interval at which changed data is written back to the store in the background.
+     * <p>
+     * Takes effect on the next {@link #enable()}. The default is 30 seconds.
+     *
+     * @param intervalMillis the interval in milliseconds
+     */
+    public synchronized void setFlushInterval(long intervalMillis) {
+        if (intervalMillis < 1) {
+            throw new IllegalArgumentException("Flush interval must be positive.");
+        }
+        flushIntervalMillis = intervalMillis;
+    }
+
+    /**
+     * Opens the store, starts loading the data of every online player, and starts the background flushes.
+     * <p>
+     * Logs an error and leaves the cache disabled if the store cannot be opened.
+     */
+    public synchronized void enable() {
+        if (active) {
+            return;
+        }
+
+        try {
+            store.open();
+        } catch (IOException e) {
+            logSevere("[%s] Failed to open player data store: %s", pluginName, e.getMessage());
+            return;
+        }
+
+        active = true;
+        if (!listenerRegistered) {
+            Loader loader = new Loader();
+            plugin.getServer().getPluginManager().registerEvent(Event.Type.PLAYER_JOIN, loader, Event.Priority.Lowest, plugin);
+            plugin.getServer().getPluginManager().registerEvent(Event.Type.PLAYER_QUIT, loader, Event.Priority.Monitor, plugin);
+            plugin.getServer().getPluginManager().registerEvent(Event.Type.PLAYER_KICK, loader, Event.Priority.Monitor, plugin);
+            listenerRegistered = true;
+        }
+
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            request(player.getName(), true);
+        }
+        flushTask = executor.scheduleWithFixedDelay(this::flushDirty, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes all unsaved changes to the store, waiting for them to be written, and closes the store.
+     * <p>
+     * The cache is emptied and stops reacting to players joining and quitting until it is enabled again.
+     */
+    public synchronized void disable() {
+        if (!active) {
+            return;
+        }
+
+        active = false;
+        flushTask.cancel(false);
+        try {
+            executor.submit(this::flushDirty).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logSevere("[%s] Failed to save player data: %s", pluginName, e.getCause().getMessage());
+        }
+
+        store.close();
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Loads the data of a player in the background, unless it is already cached or being loaded.
+     *
+     * @param playerName the player's name
+     * @return a future completed on the main server thread with the player's data, or completed exceptionally if the
+     * data cannot be read
+     */
+    public CompletableFuture<PlayerData> load(String playerName) {
+        if (!active) {
+            CompletableFuture<PlayerData> disabled = new CompletableFuture<>();
+            disabled.completeExceptionally(new IllegalStateException("Player data cache is disabled."));
+            return disabled;
+        }
+        return request(playerName, false).loaded.thenApplyAsync(data -> data, mainThread);
+    }
+
+    /**
+     * Returns the data of a player if it has already been loaded, and starts loading it otherwise.
+     * <p>
+     * The data of online players is normally loaded by the time it is needed. This method never waits for a load, so
+     * it is safe to call on the main server thread; use {@link #load(String)} to act on the data once it is loaded.
+     *
+     * @param player the player
+     * @return the player's data, or {@code null} if it is still being loaded, cannot be read, or the cache is disabled
+     */
+    public PlayerData get(Player player) {
+        if (!active) {
+            return null;
+        }
+        return request(player.getName(), false).data();
+    }
+
+    /**
+     * Returns the data of a player if it has already been loaded.
+     *
+     * @param playerName the player's name
+     * @return the player's data, or {@code null} if it is not cached or still being loaded
+     */
+    public PlayerData getIfLoaded(String playerName) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key(playerName));
+        }
+        return entry != null ? entry.data() : null;
+    }
+
+    /**
+     * Writes all unsaved changes to the store in the background.
+     */
+    public void flush() {
+        if (active) {
+            executor.execute(this::flushDirty);
+        }
+    }
+
+    /**
+     * Returns the number of players whose data is cached.
+     *
+     * @return the number of cached players
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Returns the estimated memory used by the cached data.
+     *
+     * @return the estimated memory in bytes
+     */
+    public long getEstimatedBytes() {
+        synchronized (entries) {
+            long bytes = 0;
+            for (Entry entry : entries.values()) {
+                bytes += entry.estimatedBytes();
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * Returns the entry of a player, starting to load the player's data in the background if there is none.
+     */
+    private Entry request(String playerName, boolean online) {
+        String key = key(playerName);
+        Entry entry;
+        boolean created = false;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry(key);
+                entries.put(key, entry);
+                created = true;
+            }
+            if (online) {
+                entry.online = true;
+            }
+        }
+
+        if (created) {
+            Entry loading = entry;
+            executor.execute(() -> read(loading, playerName));
+        }
+        return entry;
+    }
+
+    private void read(Entry entry, String playerName) {
+        try {
+            byte[] encoded = store.get(entry.key);
+            entry.loaded.complete(encoded != null ? PlayerData.decode(playerName, encoded) : PlayerData.empty(playerName));
+        } catch (IOException | RuntimeException e) {
+            logSevere("[%s] Failed to load data of player '%s': %s", pluginName, playerName, e.getMessage());
+            synchronized (entries) {
+                entries.remove(entry.key, entry);
+            }
+            entry.loaded.completeExceptionally(e);
+            return;
+        }
+        evictIfNeeded();
+    }
+
+    /**
+     * Marks a player as offline and writes the player's changes in the background.
+     */
+    private void release(String playerName) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key(playerName));
+            if (entry == null) {
+                return;
+            }
+            entry.online = false;
+        }
+
+        executor.execute(() -> {
+            write(Collections.singletonList(entry));
+            evictIfNeeded();
+        });
+    }
+
+    private void flushDirty() {
+        List<Entry> dirty = new ArrayList<>();
+        synchronized (entries) {
+            for (Entry entry : entries.values()) {
+                PlayerData data = entry.loaded.getNow(null);
+                if (data != null && data.isDirty()) {
+                    dirty.add(entry);
+                }
+            }
+        }
+
+        write(dirty);
+        evictIfNeeded();
+    }
+
+    /**
+     * Writes the unsaved changes of the given entries to the store and forces them to disk once.
+     */
+    private void write(List<Entry> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        long[] versions = new long[batch.size()];
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                PlayerData data = batch.get(i).loaded.getNow(null);
+                if (data == null || !data.isDirty()) {
+                    versions[i] = -1;
+                    continue;
+                }
+
+                byte[] encoded;
+                synchronized (data) {
+                    versions[i] = data.getVersion();
+                    encoded = data.encode();
+                }
+                store.put(batch.get(i).key, encoded);
+            }
+            store.sync();
+        } catch (IOException e) {
+            logSevere("[%s] Failed to save player data: %s", pluginName, e.getMessage());
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            if (versions[i] >= 0) {
+                batch.get(i).loaded.join().markSaved(versions[i]);
+            }
+        }
+    }
+
+    /**
+     * Evicts the least recently used offline players without unsaved changes until the cache is within its limit.
+     */
+    private void evictIfNeeded() {
+        synchronized (entries) {
+            long bytes = 0;
+            for (Entry entry : entries.values()) {
+                bytes += entry.estimatedBytes();
+            }
+
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (bytes > maxBytes && iterator.hasNext()) {
+                Entry entry = iterator.next();
+                PlayerData data = entry.loaded.getNow(null);
+                if (!entry.online && data != null && !data.isDirty()) {
+                    bytes -= entry.estimatedBytes();
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    private static String key(String playerName) {
+        return playerName.toLowerCase(Locale.ROOT);
+    }
+
+    private static ScheduledThreadPoolExecutor createExecutor() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "PlayerDataCache-IO");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setKeepAliveTime(30, TimeUnit.SECONDS);
+        executor.allowCoreThreadTimeOut(true);
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    /**
+     * The cached data of a single player, which may still be loading.
+     */
+    private static final class Entry {
+
+        private final String key;
+        private final CompletableFuture<PlayerData> loaded = new CompletableFuture<>();
+        private boolean online;
+
+        private Entry(String key) {
+            this.key = key;
+        }
+
+        /**
+         * Returns the loaded data, or {@code null} if it is still being loaded or failed to load.
+         */
+        private PlayerData data() {
+            try {
+                return loaded.getNow(null);
+            } catch (CompletionException e) {
+                return null;
+            }
+        }
+
+        private long estimatedBytes() {
+            PlayerData data = data();
+            return ENTRY_BYTES + (data != null ? data.getEstimatedBytes() : 0);
+        }
+    }
+
+    /**
+     * Loads the data of joining players and writes the data of leaving players.
+     */
+    private final class Loader extends PlayerListener {
+
+        @Override
+        public void onPlayerJoin(PlayerJoinEvent event) {
+            if (active) {
+                request(event.getPlayer().getName(), true);
+            }
+        }
+
+        @Override
+        public void onPlayerQuit(PlayerQuitEvent event) {
+            if (active) {
+                release(event.getPlayer().getName());
+            }
+        }
+
+        @Override
+        public void onPlayerKick(PlayerKickEvent event) {
+            if (active) {
+                release(event.getPlayer().getName());
+            }
+        }
+    }
+}
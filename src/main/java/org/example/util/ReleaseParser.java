@@ -0,0 +1,218 @@
+package org.example.util;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Streaming reader for the {@code tag_name} field of a GitHub release response.
+ * <p>
+ * The response is tokenized as JSON while it is read, keeping only the current key in memory, and reading stops as
+ * soon as the {@code tag_name} field of the top-level object has been read. Values of other fields, including nested
+ * objects and arrays such as the asset list, are skipped without being stored. Whitespace between tokens and escape
+ * sequences in strings are handled as specified by JSON.
+ * <p>
+ * <b>Note:</b> Used by {@link UpdateUtil}.
+ */
+final class ReleaseParser {
+
+    private static final String TAG_NAME = "tag_name";
+    private static final int BUFFER_SIZE = 2048;
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder string = new StringBuilder(32);
+    private int position;
+    private int limit;
+
+    private ReleaseParser(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Reads the {@code tag_name} field of a release response, stopping as soon as it has been read.
+     *
+     * @param in the reader of the response body, which is left open
+     * @return the release tag, or {@code null} if the response has no such field or is not a JSON object
+     * @throws IOException if the response cannot be read
+     */
+    static String readTagName(Reader in) throws IOException {
+        return new ReleaseParser(in).readTagName();
+    }
+
+    private String readTagName() throws IOException {
+        if (nextToken() != '{') {
+            return null;
+        }
+
+        int c = nextToken();
+        while (c == '"') {
+            boolean isTag = TAG_NAME.contentEquals(readString());
+            if (nextToken() != ':') {
+                return null;
+            }
+
+            c = nextToken();
+            if (isTag) {
+                return c == '"' ? readString().toString() : null;
+            }
+            if (!skipValue(c)) {
+                return null;
+            }
+
+            c = nextToken();
+            if (c != ',') {
+                return null;
+            }
+            c = nextToken();
+        }
+        return null;
+    }
+
+    /**
+     * Skips a value whose first character has already been read.
+     *
+     * @return {@code true} if the value was skipped; {@code false} if the input ended first
+     */
+    private boolean skipValue(int first) throws IOException {
+        if (first == '"') {
+            skipString();
+            return true;
+        }
+        if (first != '{' && first != '[') {
+            return skipLiteral();
+        }
+
+        int depth = 1;
+        while (depth > 0) {
+            int c = read();
+            if (c < 0) {
+                return false;
+            } else if (c == '"') {
+                skipString();
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Skips the rest of a number or a {@code true}, {@code false} or {@code null} literal.
+     */
+    private boolean skipLiteral() throws IOException {
+        while (true) {
+            int c = peek();
+            if (c < 0) {
+                return false;
+            }
+            if (c == ',' || c == '}' || c == ']' || isWhitespace(c)) {
+                return true;
+            }
+            position++;
+        }
+    }
+
+    /**
+     * Reads the rest of a string whose opening quote has already been read, resolving escape sequences.
+     */
+    private StringBuilder readString() throws IOException {
+        string.setLength(0);
+        while (true) {
+            int c = read();
+            if (c < 0 || c == '"') {
+                return string;
+            }
+            if (c != '\\') {
+                string.append((char) c);
+                continue;
+            }
+
+            c = read();
+            switch (c) {
+                case 'b':
+                    string.append('\b');
+                    break;
+                case 'f':
+                    string.append('\f');
+                    break;
+                case 'n':
+                    string.append('\n');
+                    break;
+                case 'r':
+                    string.append('\r');
+                    break;
+                case 't':
+                    string.append('\t');
+                    break;
+                case 'u':
+                    string.append(readUnicodeEscape());
+                    break;
+                default:
+                    if (c >= 0) {
+                        string.append((char) c);
+                    }
+            }
+        }
+    }
+
+    /**
+     * Skips the rest of a string whose opening quote has already been read.
+     */
+    private void skipString() throws IOException {
+        int c;
+        while ((c = read()) >= 0 && c != '"') {
+            if (c == '\\') {
+                read();
+            }
+        }
+    }
+
+    private char readUnicodeEscape() throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = Character.digit(read(), 16);
+            if (digit < 0) {
+                return '\uFFFD';
+            }
+            value = value * 16 + digit;
+        }
+        return (char) value;
+    }
+
+    /**
+     * Reads the next character that is not whitespace.
+     */
+    private int nextToken() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (isWhitespace(c));
+        return c;
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        if (c >= 0) {
+            position++;
+        }
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position];
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+}
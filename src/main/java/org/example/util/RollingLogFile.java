@@ -0,0 +1,295 @@
+package org.example.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+import static org.example.util.LoggerUtil.logSevere;
+import static org.example.util.LoggerUtil.logWarning;
+
+/**
+ * Segmented log file written through a {@link FileChannel}.
+ * <p>
+ * Text is appended to the active segment, which is the configured log file itself. Once the segment reaches the
+ * configured size or the day it was started on has passed, it is renamed to {@code <name>-<date>.<n>.<ext>} and a new
+ * segment is started. Closed segments are compressed to {@code .gz} archives on a background thread, after which the
+ * oldest archives beyond the retention limit are deleted.
+ * <p>
+ * Rotation is disabled until {@link #configure(long, boolean, int)} is called, in which case the file grows the same
+ * way a plain appended log file would.
+ */
+final class RollingLogFile implements LogSink {
+
+    private static final String ARCHIVE_EXTENSION = ".gz";
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final int MAX_PENDING_CHARS = 32 * 1024;
+
+    private final File file;
+    private final String pluginName;
+    private final String baseName;
+    private final String extension;
+    private final Pattern segmentPattern;
+
+    private final StringBuilder pending = new StringBuilder(8192);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+
+    private long maxBytes;
+    private boolean daily;
+    private int maxArchives;
+
+    private FileChannel channel;
+    private long size;
+    private long nextRollMillis = Long.MAX_VALUE;
+    private ExecutorService compressor;
+
+    /**
+     * Constructs a new log file with rotation disabled.
+     *
+     * @param file       the active log file
+     * @param pluginName the name of the plugin, used in error messages
+     */
+    RollingLogFile(File file, String pluginName) {
+        this.file = file;
+        this.pluginName = pluginName;
+
+        String name = file.getName();
+        int dot = name.lastIndexOf('.');
+        this.baseName = dot > 0 ? name.substring(0, dot) : name;
+        this.extension = dot > 0 ? name.substring(dot) : "";
+        this.segmentPattern = Pattern.compile(Pattern.quote(baseName) + "-\\d{4}-\\d{2}-\\d{2}\\.\\d+" + Pattern.quote(extension) + "(\\.gz)?");
+    }
+
+    /**
+     * Configures segment rotation and archive retention.
+     * <p>
+     * Any rolled segments left uncompressed by a previous run are queued for compression.
+     *
+     * @param maxBytes    the size in bytes at which the active segment is rolled over, or {@code 0} for no size limit
+     * @param daily       if {@code true}, the active segment is also rolled over at the first write of a new day
+     * @param maxArchives the number of newest archives to keep, or {@code 0} to keep every archive
+     */
+    synchronized void configure(long maxBytes, boolean daily, int maxArchives) {
+        this.maxBytes = Math.max(0L, maxBytes);
+        this.daily = daily;
+        this.maxArchives = Math.max(0, maxArchives);
+        this.nextRollMillis = daily ? nextMidnight(file.exists() ? file.lastModified() : System.currentTimeMillis()) : Long.MAX_VALUE;
+
+        File[] leftovers = listSegments(false);
+        for (File segment : leftovers) {
+            compressAsync(segment);
+        }
+    }
+
+    @Override
+    public synchronized void append(LogEntry entry) {
+        entry.appendTo(pending);
+        pending.append(LINE_SEPARATOR);
+        if (pending.length() >= MAX_PENDING_CHARS) {
+            writePending();
+        }
+    }
+
+    @Override
+    public synchronized void flush(boolean keepOpen) {
+        writePending();
+        if (!keepOpen) {
+            closeChannel();
+        }
+    }
+
+    @Override
+    public synchronized void release() {
+        closeChannel();
+    }
+
+    @Override
+    public synchronized void close() {
+        writePending();
+        closeChannel();
+
+        if (compressor != null) {
+            compressor.shutdown();
+            try {
+                compressor.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            compressor = null;
+        }
+    }
+
+    private void writePending() {
+        if (pending.length() == 0) {
+            return;
+        }
+
+        try {
+            rollIfNeeded();
+            open();
+
+            CharBuffer chars = CharBuffer.wrap(pending);
+            encoder.reset();
+            while (true) {
+                CoderResult result = encoder.encode(chars, buffer, true);
+                if (result.isOverflow()) {
+                    flushBuffer();
+                } else {
+                    break;
+                }
+            }
+            encoder.flush(buffer);
+            flushBuffer();
+        } catch (IOException e) {
+            buffer.clear();
+            logSevere("[%s] Could not write to log '%s': %s", pluginName, file.getName(), e.getMessage());
+        } finally {
+            pending.setLength(0);
+        }
+    }
+
+    private void open() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            size = channel.size();
+        }
+    }
+
+    private void rollIfNeeded() throws IOException {
+        boolean sizeExceeded = maxBytes > 0 && (channel != null ? size : file.length()) >= maxBytes;
+        boolean dayPassed = System.currentTimeMillis() >= nextRollMillis;
+        if (!sizeExceeded && !dayPassed) {
+            return;
+        }
+
+        long segmentStart = file.exists() ? file.lastModified() : System.currentTimeMillis();
+        closeChannel();
+        if (daily) {
+            nextRollMillis = nextMidnight(System.currentTimeMillis());
+        }
+        if (!file.exists() || file.length() == 0) {
+            return;
+        }
+
+        LocalDate date = Instant.ofEpochMilli(segmentStart).atZone(ZoneId.systemDefault()).toLocalDate();
+        File segment;
+        int index = 1;
+        do {
+            segment = new File(file.getParentFile(), String.format("%s-%s.%d%s", baseName, date, index++, extension));
+        } while (segment.exists() || new File(segment.getPath() + ARCHIVE_EXTENSION).exists());
+
+        Files.move(file.toPath(), segment.toPath());
+        compressAsync(segment);
+    }
+
+    private void compressAsync(File segment) {
+        if (compressor == null) {
+            compressor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, pluginName + "-LogCompressor");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+        }
+
+        int retained = maxArchives;
+        compressor.execute(() -> {
+            compress(segment);
+            if (retained > 0) {
+                deleteOldArchives(retained);
+            }
+        });
+    }
+
+    private void compress(File segment) {
+        File archive = new File(segment.getPath() + ARCHIVE_EXTENSION);
+        File temp = new File(archive.getPath() + ".tmp");
+        try (InputStream input = Files.newInputStream(segment.toPath());
+             OutputStream output = new GZIPOutputStream(Files.newOutputStream(temp.toPath()), 64 * 1024)) {
+            byte[] chunk = new byte[64 * 1024];
+            int read;
+            while ((read = input.read(chunk)) != -1) {
+                output.write(chunk, 0, read);
+            }
+        } catch (IOException e) {
+            logSevere("[%s] Could not compress log segment '%s': %s", pluginName, segment.getName(), e.getMessage());
+            temp.delete();
+            return;
+        }
+
+        try {
+            Files.move(temp.toPath(), archive.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            Files.delete(segment.toPath());
+        } catch (IOException e) {
+            logSevere("[%s] Could not finish archiving log segment '%s': %s", pluginName, segment.getName(), e.getMessage());
+        }
+    }
+
+    private void deleteOldArchives(int retained) {
+        File[] archives = listSegments(true);
+        if (archives.length <= retained) {
+            return;
+        }
+
+        Arrays.sort(archives, Comparator.comparingLong(File::lastModified).reversed());
+        for (int i = retained; i < archives.length; i++) {
+            if (!archives[i].delete()) {
+                logWarning("[%s] Could not delete old log archive '%s'.", pluginName, archives[i].getName());
+            }
+        }
+    }
+
+    private File[] listSegments(boolean archived) {
+        File[] files = file.getAbsoluteFile().getParentFile().listFiles((dir, name) ->
+                segmentPattern.matcher(name).matches() && name.endsWith(ARCHIVE_EXTENSION) == archived);
+        return files != null ? files : new File[0];
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            size += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void closeChannel() {
+        if (channel == null) {
+            return;
+        }
+
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logSevere("[%s] Could not close log '%s': %s", pluginName, file.getName(), e.getMessage());
+        } finally {
+            channel = null;
+        }
+    }
+
+    private static long nextMidnight(long epochMillis) {
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate date = Instant.ofEpochMilli(epochMillis).atZone(zone).toLocalDate();
+        return date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,148 @@
+package org.example.util;
+
+import java.util.Locale;
+
+/**
+ * Comparison of version strings following the precedence rules of Semantic Versioning.
+ * <p>
+ * A leading {@code v} is ignored, as are build metadata after a {@code +}. The dot-separated numeric core is compared
+ * numerically, with missing parts counting as {@code 0}, so {@code v1.10} is newer than {@code 1.9.3}. A version with a
+ * pre-release suffix after a {@code -}, such as {@code 1.2.0-SNAPSHOT} or {@code 1.2.0-rc.1}, comes before the release
+ * of the same core, and pre-release identifiers are compared numerically or, ignoring case, alphabetically. Versions
+ * whose core is not numeric are compared as text, ignoring case.
+ * <p>
+ * <b>Note:</b> Used by {@link UpdateUtil}.
+ */
+final class SemanticVersion {
+
+    private SemanticVersion() {
+    }
+
+    /**
+     * Compares two version strings.
+     *
+     * @param first  the first version
+     * @param second the second version
+     * @return a negative number, zero or a positive number if the first version is older than, equal to or newer than
+     *         the second version
+     */
+    static int compare(String first, String second) {
+        String a = strip(first);
+        String b = strip(second);
+        String coreA = core(a);
+        String coreB = core(b);
+        if (!isNumeric(coreA) || !isNumeric(coreB)) {
+            return Integer.signum(a.compareToIgnoreCase(b));
+        }
+
+        int result = compareIdentifiers(coreA.split("\\."), coreB.split("\\."), true);
+        if (result != 0) {
+            return result;
+        }
+
+        String preA = a.length() > coreA.length() ? a.substring(coreA.length() + 1) : null;
+        String preB = b.length() > coreB.length() ? b.substring(coreB.length() + 1) : null;
+        if (preA == null || preB == null) {
+            return preA == null ? (preB == null ? 0 : 1) : -1;
+        }
+        return compareIdentifiers(preA.split("\\."), preB.split("\\."), false);
+    }
+
+    /**
+     * Compares dot-separated identifiers one by one.
+     *
+     * @param padWithZero {@code true} to treat missing identifiers as {@code 0}, as for the numeric core;
+     *                    {@code false} to rank the shorter list first, as for pre-release identifiers
+     */
+    private static int compareIdentifiers(String[] a, String[] b, boolean padWithZero) {
+        int length = Math.max(a.length, b.length);
+        for (int i = 0; i < length; i++) {
+            if (i >= a.length || i >= b.length) {
+                if (!padWithZero) {
+                    return i >= a.length ? -1 : 1;
+                }
+                String present = i < a.length ? a[i] : b[i];
+                int result = compareNumbers(present, "0");
+                if (result != 0) {
+                    return i < a.length ? result : -result;
+                }
+                continue;
+            }
+
+            int result;
+            boolean numericA = isDigits(a[i]);
+            boolean numericB = isDigits(b[i]);
+            if (numericA && numericB) {
+                result = compareNumbers(a[i], b[i]);
+            } else if (numericA || numericB) {
+                result = numericA ? -1 : 1;
+            } else {
+                result = Integer.signum(a[i].toLowerCase(Locale.ROOT).compareTo(b[i].toLowerCase(Locale.ROOT)));
+            }
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Compares two non-negative numbers of any length given as digits.
+     */
+    private static int compareNumbers(String a, String b) {
+        String x = trimZeros(a);
+        String y = trimZeros(b);
+        if (x.length() != y.length()) {
+            return x.length() < y.length() ? -1 : 1;
+        }
+        return Integer.signum(x.compareTo(y));
+    }
+
+    private static String trimZeros(String digits) {
+        int i = 0;
+        while (i < digits.length() - 1 && digits.charAt(i) == '0') {
+            i++;
+        }
+        return digits.substring(i);
+    }
+
+    private static String strip(String version) {
+        String stripped = version.trim();
+        if (stripped.length() > 1 && (stripped.charAt(0) == 'v' || stripped.charAt(0) == 'V') && Character.isDigit(stripped.charAt(1))) {
+            stripped = stripped.substring(1);
+        }
+        int build = stripped.indexOf('+');
+        return build >= 0 ? stripped.substring(0, build) : stripped;
+    }
+
+    private static String core(String version) {
+        int preRelease = version.indexOf('-');
+        return preRelease >= 0 ? version.substring(0, preRelease) : version;
+    }
+
+    private static boolean isNumeric(String core) {
+        if (core.isEmpty() || core.startsWith(".") || core.endsWith(".") || core.contains("..")) {
+            return false;
+        }
+        for (int i = 0; i < core.length(); i++) {
+            char c = core.charAt(i);
+            if (c != '.' && (c < '0' || c > '9')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigits(String identifier) {
+        if (identifier.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < identifier.length(); i++) {
+            char c = identifier.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
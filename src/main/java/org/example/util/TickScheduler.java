@@ -0,0 +1,340 @@
+package org.example.util;
+
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.example.util.LoggerUtil.logSevere;
+
+/**
+ * Scheduler that spreads units of main-thread work across server ticks within a time budget.
+ * <p>
+ * Work such as messaging every online player must run on the main thread, but doing all of it in one tick stalls the
+ * server. Units of work can be submitted from any thread and are queued by {@link Priority}. Every tick, queued units
+ * run in priority order, oldest first, while the average time a unit takes still fits in the tick's budget. Units
+ * that did not fit are carried over to the next tick. A unit is never interrupted, so a unit that runs much longer
+ * than the average makes the tick overrun the budget; the first unit of a tick always runs, so that progress is made
+ * even with a tiny budget. Lower priorities only run once the higher ones are empty, so they wait for as long as
+ * higher priority work keeps arriving.
+ * <p>
+ * The queue depths and the number and extent of overrun ticks are available through the getters. While
+ * {@link MetricsUtil} is enabled, the time spent running work in every tick is also recorded as
+ * {@code scheduler.tick}.
+ * <p>
+ * <b>Note:</b> Call {@link #enable()} from the plugin's {@code onEnable} method and {@link #disable()} from its
+ * {@code onDisable} method. Work submitted before the scheduler is enabled waits until it is, and work submitted after
+ * it is disabled is rejected.
+ */
+public final class TickScheduler {
+
+    /**
+     * The priority of a unit of work. Units of a higher priority run before any unit of a lower priority.
+     */
+    public enum Priority {
+        HIGH, NORMAL, LOW
+    }
+
+    private static final long DEFAULT_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final JavaPlugin plugin;
+    private final String pluginName;
+    private final List<Queue<Runnable>> queues;
+    private final AtomicInteger[] depths;
+
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong completedUnits = new AtomicLong();
+    private final AtomicLong carriedOverTicks = new AtomicLong();
+    private final AtomicLong overrunTicks = new AtomicLong();
+    private final AtomicLong totalOverrunNanos = new AtomicLong();
+    private final AtomicLong maxOverrunNanos = new AtomicLong();
+
+    private volatile long budgetNanos;
+    private volatile boolean disabled;
+    private long averageUnitNanos;
+    private int taskId = -1;
+
+    /**
+     * Constructs a new tick scheduler with a budget of 5 milliseconds per tick.
+     *
+     * @param plugin the plugin instance whose scheduler task runs the work
+     */
+    public TickScheduler(JavaPlugin plugin) {
+        this(plugin, DEFAULT_BUDGET_NANOS);
+    }
+
+    /**
+     * Constructs a new tick scheduler.
+     *
+     * @param plugin      the plugin instance whose scheduler task runs the work
+     * @param budgetNanos the time in nanoseconds that work may take per tick
+     */
+    public TickScheduler(JavaPlugin plugin, long budgetNanos) {
+        this.plugin = plugin;
+        this.pluginName = plugin.getDescription().getName();
+        this.queues = new ArrayList<>(PRIORITIES.length);
+        this.depths = new AtomicInteger[PRIORITIES.length];
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            queues.add(new ConcurrentLinkedQueue<>());
+            depths[i] = new AtomicInteger();
+        }
+        setBudgetNanos(budgetNanos);
+    }
+
+    /**
+     * Sets the time that work may take per tick. Takes effect from the next tick.
+     * <p>
+     * A server tick lasts 50 milliseconds, which the server itself also needs, so the budget should be a small part
+     * of it.
+     *
+     * @param budgetNanos the budget in nanoseconds
+     */
+    public void setBudgetNanos(long budgetNanos) {
+        if (budgetNanos < 1) {
+            throw new IllegalArgumentException("Tick budget must be positive.");
+        }
+        this.budgetNanos = budgetNanos;
+    }
+
+    /**
+     * Returns the time that work may take per tick.
+     *
+     * @return the budget in nanoseconds
+     */
+    public long getBudgetNanos() {
+        return budgetNanos;
+    }
+
+    /**
+     * Starts running queued work every tick. A disabled scheduler accepts work again.
+     * <p>
+     * Logs an error and leaves the scheduler disabled if the server refuses the task.
+     */
+    public synchronized void enable() {
+        if (taskId != -1) {
+            return;
+        }
+
+        disabled = false;
+        taskId = plugin.getServer().getScheduler().scheduleSyncRepeatingTask(plugin, this::runTick, 1L, 1L);
+        if (taskId == -1) {
+            disabled = true;
+            logSevere("[%s] Failed to schedule the tick scheduler.", pluginName);
+        }
+    }
+
+    /**
+     * Stops running work every tick, rejects further work and runs all work still queued, regardless of the budget.
+     * <p>
+     * Must be called on the main thread.
+     */
+    public synchronized void disable() {
+        disabled = true;
+        if (taskId != -1) {
+            plugin.getServer().getScheduler().cancelTask(taskId);
+            taskId = -1;
+        }
+        run(Long.MAX_VALUE);
+    }
+
+    /**
+     * Queues a unit of work with {@link Priority#NORMAL} priority. Can be called from any thread.
+     *
+     * @param work the work to run on the main thread
+     * @return {@code true} if the work was queued, {@code false} if the scheduler is disabled and the work is dropped
+     */
+    public boolean submit(Runnable work) {
+        return submit(Priority.NORMAL, work);
+    }
+
+    /**
+     * Queues a unit of work. Can be called from any thread.
+     * <p>
+     * A unit should be small, such as sending a message to one player, so that the budget can be kept. Work submitted
+     * after {@link #disable()} is not queued, since it would never run.
+     *
+     * @param priority the priority of the work
+     * @param work     the work to run on the main thread
+     * @return {@code true} if the work was queued, {@code false} if the scheduler is disabled and the work is dropped
+     */
+    public boolean submit(Priority priority, Runnable work) {
+        if (work == null) {
+            throw new IllegalArgumentException("Work must not be null.");
+        }
+        if (disabled) {
+            return false;
+        }
+
+        int index = priority.ordinal();
+        Queue<Runnable> queue = queues.get(index);
+        depths[index].incrementAndGet();
+        queue.add(work);
+
+        // If the scheduler was disabled meanwhile, the work either ran in the final drain or is taken back here
+        if (disabled && queue.remove(work)) {
+            depths[index].decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of queued units of all priorities.
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        int depth = 0;
+        for (AtomicInteger priorityDepth : depths) {
+            depth += priorityDepth.get();
+        }
+        return depth;
+    }
+
+    /**
+     * Returns the number of queued units of a priority.
+     *
+     * @param priority the priority
+     * @return the queue depth of the priority
+     */
+    public int getQueueDepth(Priority priority) {
+        return depths[priority.ordinal()].get();
+    }
+
+    /**
+     * Returns the number of ticks in which queued work ran.
+     *
+     * @return the number of ticks
+     */
+    public long getTicks() {
+        return ticks.get();
+    }
+
+    /**
+     * Returns the number of units that have run, including units that failed.
+     *
+     * @return the number of completed units
+     */
+    public long getCompletedUnits() {
+        return completedUnits.get();
+    }
+
+    /**
+     * Returns the number of ticks that ended with work left in the queues.
+     *
+     * @return the number of ticks that carried work over
+     */
+    public long getCarriedOverTicks() {
+        return carriedOverTicks.get();
+    }
+
+    /**
+     * Returns the number of ticks in which running work took longer than the budget.
+     *
+     * @return the number of overrun ticks
+     */
+    public long getOverrunTicks() {
+        return overrunTicks.get();
+    }
+
+    /**
+     * Returns the average time by which overrun ticks exceeded the budget.
+     *
+     * @return the average overrun in nanoseconds, or {@code 0} if no tick overran
+     */
+    public long getAverageOverrunNanos() {
+        long overruns = overrunTicks.get();
+        return overruns == 0 ? 0 : totalOverrunNanos.get() / overruns;
+    }
+
+    /**
+     * Returns the longest time by which a tick exceeded the budget.
+     *
+     * @return the maximum overrun in nanoseconds
+     */
+    public long getMaxOverrunNanos() {
+        return maxOverrunNanos.get();
+    }
+
+    /**
+     * Clears the tick, unit and overrun statistics. Queued work is kept.
+     */
+    public void resetStats() {
+        ticks.set(0);
+        completedUnits.set(0);
+        carriedOverTicks.set(0);
+        overrunTicks.set(0);
+        totalOverrunNanos.set(0);
+        maxOverrunNanos.set(0);
+    }
+
+    private void runTick() {
+        if (getQueueDepth() == 0) {
+            return;
+        }
+
+        long budget = budgetNanos;
+        long elapsed = run(budget);
+
+        ticks.incrementAndGet();
+        if (getQueueDepth() > 0) {
+            carriedOverTicks.incrementAndGet();
+        }
+        if (elapsed > budget) {
+            long overrun = elapsed - budget;
+            overrunTicks.incrementAndGet();
+            totalOverrunNanos.addAndGet(overrun);
+            long max = maxOverrunNanos.get();
+            while (overrun > max && !maxOverrunNanos.compareAndSet(max, overrun)) {
+                max = maxOverrunNanos.get();
+            }
+        }
+        if (MetricsUtil.isEnabled()) {
+            MetricsUtil.TICK_WORK.recordNanos(elapsed);
+        }
+    }
+
+    /**
+     * Runs queued work in priority order until the queues are empty or the next unit is not expected to fit in the
+     * budget, judged by the average time units have taken so far.
+     *
+     * @param budget the time in nanoseconds that the work may take; the first unit runs regardless
+     * @return the time in nanoseconds the work took
+     */
+    private long run(long budget) {
+        long start = System.nanoTime();
+        long elapsed = 0;
+        int index = 0;
+
+        while (index < queues.size()) {
+            Runnable work = queues.get(index).poll();
+            if (work == null) {
+                index++;
+                continue;
+            }
+
+            depths[index].decrementAndGet();
+            long unitStart = System.nanoTime();
+            try {
+                work.run();
+            } catch (RuntimeException e) {
+                logSevere("[%s] Scheduled work failed: %s", pluginName, e);
+            }
+            completedUnits.incrementAndGet();
+
+            long now = System.nanoTime();
+            averageUnitNanos += (now - unitStart - averageUnitNanos) / 8;
+            elapsed = now - start;
+            if (elapsed + averageUnitNanos > budget) {
+                break;
+            }
+        }
+        return elapsed;
+    }
+}
@@ -0,0 +1,122 @@
+package org.example.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * The last successful update check response, persisted in the plugin's data folder.
+ * <p>
+ * Holds the validators ({@code ETag} and {@code Last-Modified}) and the parsed release tag of the last {@code 200}
+ * response for a single GitHub API URL, along with the time it was last confirmed by the API. The cache is stored as a
+ * properties file and ignored if it was written for a different URL.
+ * <p>
+ * <b>Note:</b> Instances are created and managed by {@link UpdateUtil}.
+ */
+final class UpdateCache {
+
+    private static final String FILE_NAME = "update-cache.properties";
+
+    private final File file;
+    private final String url;
+    String etag;
+    String lastModified;
+    String tagName;
+    long checkedAt;
+
+    private UpdateCache(File file, String url) {
+        this.file = file;
+        this.url = url;
+    }
+
+    /**
+     * Loads the cache for the given URL from the data folder.
+     *
+     * @param dataFolder the plugin's data folder
+     * @param url        the GitHub API URL being checked
+     * @return the loaded cache, which is empty if no cache exists for the URL or it cannot be read
+     */
+    static synchronized UpdateCache load(File dataFolder, String url) {
+        UpdateCache cache = new UpdateCache(new File(dataFolder, FILE_NAME), url);
+        if (!cache.file.isFile()) {
+            return cache;
+        }
+
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(cache.file)) {
+            properties.load(in);
+        } catch (IOException e) {
+            return cache;
+        }
+
+        if (url.equals(properties.getProperty("url"))) {
+            cache.etag = properties.getProperty("etag");
+            cache.lastModified = properties.getProperty("last-modified");
+            cache.tagName = properties.getProperty("tag-name");
+            try {
+                cache.checkedAt = Long.parseLong(properties.getProperty("checked-at", "0"));
+            } catch (NumberFormatException e) {
+                cache.checkedAt = 0;
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Returns whether the cached tag was confirmed by the API less than the given time ago.
+     *
+     * @param ttlMillis the time to live of the cached tag in milliseconds
+     * @return {@code true} if the tag can be used without a request; {@code false} otherwise
+     */
+    boolean isFresh(long ttlMillis) {
+        long age = System.currentTimeMillis() - checkedAt;
+        return tagName != null && age >= 0 && age < ttlMillis;
+    }
+
+    /**
+     * Writes the cache to the data folder.
+     * <p>
+     * The cache is written to a temporary file first, which then atomically replaces the previous cache, so that a
+     * crash during the write never leaves a truncated cache behind.
+     *
+     * @throws IOException if the cache file cannot be written
+     */
+    void save() throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("url", url);
+        properties.setProperty("checked-at", Long.toString(checkedAt));
+        if (etag != null) {
+            properties.setProperty("etag", etag);
+        }
+        if (lastModified != null) {
+            properties.setProperty("last-modified", lastModified);
+        }
+        if (tagName != null) {
+            properties.setProperty("tag-name", tagName);
+        }
+
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Could not create " + parent);
+        }
+        synchronized (UpdateCache.class) {
+            Path target = file.toPath();
+            Path temp = target.resolveSibling(file.getName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                properties.store(out, "Last update check response");
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+}
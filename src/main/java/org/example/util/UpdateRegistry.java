@@ -0,0 +1,166 @@
+package org.example.util;
+
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import static org.example.util.LoggerUtil.logInfo;
+import static org.example.util.LoggerUtil.logSevere;
+import static org.example.util.LoggerUtil.logWarning;
+
+/**
+ * Registry that batches the update checks registered through a plugin's copy of {@link UpdateUtil}.
+ * <p>
+ * Registrations are kept in a static queue, so they only live as long as the plugin's class loader and are released
+ * once the batch has run. Every registration schedules its own start of the batch on the server's main thread, which
+ * only runs once the server has finished enabling plugins. Whichever start runs first takes all queued registrations,
+ * and the later ones find the queue empty. The batch checks its registrations on a small pool of background threads,
+ * reusing keep-alive connections to the GitHub API, logs one summary, and hands each registration its result.
+ * <p>
+ * <b>Note:</b> Registrations are made through {@link UpdateUtil#registerForUpdateCheck(JavaPlugin, String)}.
+ */
+final class UpdateRegistry {
+
+    private static final long BATCH_DELAY_TICKS = 20L;
+    private static final int MAX_PARALLEL_CHECKS = 4;
+
+    private static final Queue<Registration> queue = new ConcurrentLinkedQueue<>();
+
+    private UpdateRegistry() {
+    }
+
+    /**
+     * Registers a repository for the next batch of update checks.
+     * <p>
+     * If the start of the batch cannot be scheduled, the batch is started right away.
+     *
+     * @param plugin       the plugin to check
+     * @param githubApiUrl the GitHub API URL to query for the latest release information
+     * @param callback     receives the result on a background thread
+     */
+    static void register(JavaPlugin plugin, String githubApiUrl, Consumer<UpdateResult> callback) {
+        queue.add(new Registration(plugin, githubApiUrl, callback));
+
+        int taskId = plugin.getServer().getScheduler().scheduleSyncDelayedTask(plugin, () -> startBatch(plugin), BATCH_DELAY_TICKS);
+        if (taskId == -1) {
+            logWarning("[%s] Could not schedule the update check, checking right away.", plugin.getDescription().getName());
+            startBatch(plugin);
+        }
+    }
+
+    /**
+     * Takes all queued registrations and checks them on a background thread.
+     */
+    private static void startBatch(JavaPlugin starter) {
+        List<Registration> batch = new ArrayList<>();
+        Registration registration;
+        while ((registration = queue.poll()) != null) {
+            batch.add(registration);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        Thread thread = new Thread(() -> runBatch(starter.getDescription().getName(), batch), "UpdateUtil-Batch");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Checks a batch of registrations with bounded parallelism and logs a summary.
+     */
+    private static void runBatch(String starterName, List<Registration> batch) {
+        int threads = Math.min(MAX_PARALLEL_CHECKS, batch.size());
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "UpdateUtil-Batch-Worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        List<Future<UpdateResult>> futures = new ArrayList<>(batch.size());
+        for (Registration registration : batch) {
+            futures.add(pool.submit(() -> UpdateUtil.check(registration.plugin, registration.githubApiUrl, true)));
+        }
+
+        int upToDate = 0;
+        int outdated = 0;
+        int failed = 0;
+        List<String> details = new ArrayList<>();
+        UpdateResult[] results = new UpdateResult[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            JavaPlugin plugin = batch.get(i).plugin;
+            String name = plugin.getDescription().getName();
+            UpdateResult result;
+            try {
+                result = futures.get(i).get();
+            } catch (Exception e) {
+                logSevere("[%s] Exception occurred while checking for a new version: %s", name, e.getMessage());
+                results[i] = new UpdateResult(UpdateResult.Status.FAILED, "v" + plugin.getDescription().getVersion(), null, null, 0, 0, String.valueOf(e.getMessage()), false);
+                failed++;
+                continue;
+            }
+
+            switch (result.getStatus()) {
+                case UP_TO_DATE:
+                    upToDate++;
+                    break;
+                case UPDATE_AVAILABLE:
+                    outdated++;
+                    details.add(String.format("[%s] New stable %s available, running %s. Download from: %s", name, result.getLatestVersion(), result.getCurrentVersion(), result.getDownloadLink()));
+                    break;
+                default:
+                    failed++;
+                    details.add(String.format("[%s] Update check failed: %s", name, describeFailure(result)));
+            }
+
+            results[i] = result;
+        }
+        pool.shutdown();
+
+        logInfo("[%s] Checked %d repositories for updates: %d up to date, %d outdated, %d failed.", starterName, batch.size(), upToDate, outdated, failed);
+        for (String detail : details) {
+            logInfo(detail);
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                batch.get(i).callback.accept(results[i]);
+            } catch (RuntimeException e) {
+                logWarning("[%s] Could not deliver the update check result: %s", batch.get(i).plugin.getDescription().getName(), e.getMessage());
+            }
+        }
+    }
+
+    private static String describeFailure(UpdateResult result) {
+        if (result.getError() != null) {
+            return result.getError();
+        }
+        if (result.getStatus() == UpdateResult.Status.RATE_LIMITED) {
+            return "rate limited";
+        }
+        return result.getResponseCode() == 200 ? "could not determine the latest version" : "unexpected response code " + result.getResponseCode();
+    }
+
+    /**
+     * A repository registered for the next batch.
+     */
+    private static final class Registration {
+
+        private final JavaPlugin plugin;
+        private final String githubApiUrl;
+        private final Consumer<UpdateResult> callback;
+
+        private Registration(JavaPlugin plugin, String githubApiUrl, Consumer<UpdateResult> callback) {
+            this.plugin = plugin;
+            this.githubApiUrl = githubApiUrl;
+            this.callback = callback;
+        }
+    }
+}
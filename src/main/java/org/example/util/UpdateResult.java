@@ -0,0 +1,122 @@
+package org.example.util;
+
+/**
+ * The outcome of an update check performed by {@link UpdateUtil}.
+ */
+public final class UpdateResult {
+
+    /**
+     * The possible outcomes of an update check.
+     */
+    public enum Status {
+        /**
+         * The current version matches the latest release or is newer than it.
+         */
+        UP_TO_DATE,
+        /**
+         * A release newer than the current version is available.
+         */
+        UPDATE_AVAILABLE,
+        /**
+         * The GitHub API refused the request because of rate limiting, after all retries.
+         */
+        RATE_LIMITED,
+        /**
+         * The check failed because of an unexpected response, an unreadable release or an I/O error.
+         */
+        FAILED
+    }
+
+    private final Status status;
+    private final String currentVersion;
+    private final String latestVersion;
+    private final String downloadLink;
+    private final int responseCode;
+    private final long retryAfterMillis;
+    private final String error;
+    private final boolean cached;
+
+    UpdateResult(Status status, String currentVersion, String latestVersion, String downloadLink, int responseCode, long retryAfterMillis, String error, boolean cached) {
+        this.status = status;
+        this.currentVersion = currentVersion;
+        this.latestVersion = latestVersion;
+        this.downloadLink = downloadLink;
+        this.responseCode = responseCode;
+        this.retryAfterMillis = retryAfterMillis;
+        this.error = error;
+        this.cached = cached;
+    }
+
+    /**
+     * Returns the outcome of the check.
+     *
+     * @return the status of the check
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the current version of the plugin, formatted with a {@code v} prefix.
+     *
+     * @return the current version
+     */
+    public String getCurrentVersion() {
+        return currentVersion;
+    }
+
+    /**
+     * Returns the tag of the latest release.
+     *
+     * @return the latest version, or {@code null} if it could not be determined
+     */
+    public String getLatestVersion() {
+        return latestVersion;
+    }
+
+    /**
+     * Returns the link to the repository's latest release page.
+     *
+     * @return the download link
+     */
+    public String getDownloadLink() {
+        return downloadLink;
+    }
+
+    /**
+     * Returns the HTTP response code of the last request.
+     *
+     * @return the response code, or {@code 0} if no request was made or no response was received
+     */
+    public int getResponseCode() {
+        return responseCode;
+    }
+
+    /**
+     * Returns how long the GitHub API asked to wait before the next request, for rate-limited checks.
+     *
+     * @return the wait time in milliseconds, or {@code 0} if none was given
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+    /**
+     * Returns the error message of a failed check.
+     *
+     * @return the error message, or {@code null} if the check did not fail because of an exception
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Returns whether the latest version was taken from the cache of an earlier check, either without a request or
+     * after a {@code 304 Not Modified} response.
+     *
+     * @return {@code true} if the latest version was cached; {@code false} otherwise
+     */
+    public boolean isCached() {
+        return cached;
+    }
+}
@@ -3,26 +3,47 @@ package org.example.util;
 import org.bukkit.plugin.PluginDescriptionFile;
 import org.bukkit.plugin.java.JavaPlugin;
 
-import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.util.logging.Logger;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
-import static org.bukkit.Bukkit.getServer;
+import static org.example.util.LoggerUtil.logInfo;
+import static org.example.util.LoggerUtil.logSevere;
+import static org.example.util.LoggerUtil.logWarning;
 
 /**
  * Utility class for checking and comparing plugin versions with the latest release on GitHub.
  * <p>
  * This class queries the GitHub API for the latest release version and compares it with the current plugin version.
  * It logs messages indicating whether an update is available or if the plugin is up to date.
+ * <p>
+ * Checks can run synchronously with {@link #checkForUpdates(JavaPlugin, String)}, or in the background with
+ * {@link #checkForUpdatesAsync(JavaPlugin, String)}, which retries while rate limited and reports an
+ * {@link UpdateResult} on the main server thread. Plugins that check several repositories can instead register
+ * each with {@link #registerForUpdateCheck(JavaPlugin, String)} to check them in one batch.
  */
 public class UpdateUtil {
 
-    private static final Logger logger = getServer().getLogger();
+    private static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 5000;
+    private static final int DEFAULT_READ_TIMEOUT_MILLIS = 10000;
+    private static final int DEFAULT_MAX_ATTEMPTS = 4;
+    private static final long DEFAULT_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final long MAX_BACKOFF_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private static final ScheduledThreadPoolExecutor executor = createExecutor();
+    private static volatile long cacheTtlMillis = TimeUnit.HOURS.toMillis(1);
+    private static volatile int connectTimeoutMillis = DEFAULT_CONNECT_TIMEOUT_MILLIS;
+    private static volatile int readTimeoutMillis = DEFAULT_READ_TIMEOUT_MILLIS;
 
     /**
      * Checks for updates by querying a given GitHub API URL and comparing the current version with the latest
@@ -32,6 +53,9 @@ public class UpdateUtil {
      * used in GitHub release tags. It then compares the formatted version with the latest version retrieved from
      * the GitHub API. If an update is available, it logs information about the new version and a download link.
      * <p>
+     * The request blocks the calling thread for at most the connect and read timeouts. Use
+     * {@link #checkForUpdatesAsync(JavaPlugin, String)} to keep the check off the main thread.
+     * <p>
      * <b>Warning:</b> This method only works with GitHub repositories. Ensure that the GitHub API URL points to
      * the latest release information of your repository.
      *
@@ -41,40 +65,294 @@ public class UpdateUtil {
      */
     public static void checkForUpdates(JavaPlugin plugin, String githubApiUrl) {
         PluginDescriptionFile pdf = plugin.getDescription();
+        logResult(pdf.getName(), check(plugin, githubApiUrl, false));
+    }
+
+    /**
+     * Sets how long the latest release tag stored by the last check is trusted without contacting the GitHub API.
+     * <p>
+     * Every successful check stores the release tag together with the response's {@code ETag} and
+     * {@code Last-Modified} headers in the plugin's data folder. Checks made within this time reuse the stored tag
+     * without a request; later checks send a conditional request, which the API answers with a body-less
+     * {@code 304 Not Modified} if the release has not changed. The default is one hour.
+     *
+     * @param ttlMillis the time in milliseconds, or {@code 0} to always send a conditional request
+     */
+    public static void setCacheTtl(long ttlMillis) {
+        cacheTtlMillis = Math.max(0, ttlMillis);
+    }
+
+    /**
+     * Sets how long a check waits for the GitHub API to accept the connection and to send data.
+     * <p>
+     * A check that exceeds either timeout fails. The defaults are 5 seconds to connect and 10 seconds to read.
+     *
+     * @param connectMillis the connect timeout in milliseconds
+     * @param readMillis    the read timeout in milliseconds
+     */
+    public static void setTimeouts(int connectMillis, int readMillis) {
+        if (connectMillis < 1 || readMillis < 1) {
+            throw new IllegalArgumentException("Timeouts must be positive.");
+        }
+
+        connectTimeoutMillis = connectMillis;
+        readTimeoutMillis = readMillis;
+    }
+
+    /**
+     * Checks for updates in the background, retrying with exponential backoff while rate limited.
+     * <p>
+     * This method behaves like {@link #checkForUpdatesAsync(JavaPlugin, String, int, long)} with up to 4 attempts and
+     * an initial backoff of one minute.
+     *
+     * @param plugin       the plugin instance using this update check utility
+     * @param githubApiUrl the GitHub API URL to query for the latest release information
+     * @return a future completed on the main server thread with the result of the check
+     */
+    public static CompletableFuture<UpdateResult> checkForUpdatesAsync(JavaPlugin plugin, String githubApiUrl) {
+        return checkForUpdatesAsync(plugin, githubApiUrl, DEFAULT_MAX_ATTEMPTS, DEFAULT_BACKOFF_MILLIS);
+    }
+
+    /**
+     * Checks for updates in the background, retrying with exponential backoff while rate limited.
+     * <p>
+     * The request is made on a dedicated daemon thread with strict connect and read timeouts, so a slow or unreachable
+     * endpoint never stalls the server. When the GitHub API answers with {@code 403} or {@code 429}, the check is
+     * retried after a delay that starts at {@code initialBackoffMillis} and doubles with every attempt, or after the
+     * wait time sent by the API if that is longer, capped at one hour. The result is logged like
+     * {@link #checkForUpdates(JavaPlugin, String)} does, and the returned future is completed on the main server
+     * thread, so callbacks attached to it can use the Bukkit API directly. If the plugin is disabled before the check
+     * finishes, the future is never completed.
+     * <p>
+     * The URL can point to any HTTP server that answers like the GitHub API, such as a local stub server.
+     *
+     * @param plugin               the plugin instance using this update check utility
+     * @param githubApiUrl         the GitHub API URL to query for the latest release information
+     * @param maxAttempts          the maximum number of requests made while rate limited
+     * @param initialBackoffMillis the delay in milliseconds before the first retry
+     * @return a future completed on the main server thread with the result of the check
+     */
+    public static CompletableFuture<UpdateResult> checkForUpdatesAsync(JavaPlugin plugin, String githubApiUrl, int maxAttempts, long initialBackoffMillis) {
+        PluginDescriptionFile pdf = plugin.getDescription();
+        CompletableFuture<UpdateResult> result = new CompletableFuture<>();
+        attempt(plugin, githubApiUrl, 1, Math.max(1, maxAttempts), initialBackoffMillis, 0, result);
+
+        Executor mainThread = task -> plugin.getServer().getScheduler().scheduleSyncDelayedTask(plugin, task);
+        return result.thenApplyAsync(checked -> {
+            logResult(pdf.getName(), checked);
+            return checked;
+        }, mainThread);
+    }
+
+    /**
+     * Registers a repository for the next batch of update checks.
+     * <p>
+     * Once the server has finished enabling plugins, every repository registered through this plugin's copy of the
+     * utility is checked together in the background, with at most 4 requests at a time over reused keep-alive
+     * connections, and a single summary of all results is logged instead of one report per repository. This suits
+     * plugins that check several repositories, such as their own and those of bundled add-ons, without stalling
+     * startup. Each plugin built from this template keeps its own registry, since sharing state between the class
+     * loaders of different plugins would keep disabled plugins in memory.
+     * <p>
+     * The returned future is completed on the main server thread with the result for this repository. Every
+     * registration schedules its own start of the batch, so the future is completed as long as the plugin stays
+     * enabled until the batch runs.
+     *
+     * @param plugin       the plugin instance using this update check utility
+     * @param githubApiUrl the GitHub API URL to query for the latest release information
+     * @return a future completed on the main server thread with the result of the check
+     */
+    public static CompletableFuture<UpdateResult> registerForUpdateCheck(JavaPlugin plugin, String githubApiUrl) {
+        CompletableFuture<UpdateResult> result = new CompletableFuture<>();
+        UpdateRegistry.register(plugin, githubApiUrl, result::complete);
+
+        Executor mainThread = task -> plugin.getServer().getScheduler().scheduleSyncDelayedTask(plugin, task);
+        return result.thenApplyAsync(checked -> checked, mainThread);
+    }
+
+    /**
+     * Schedules a single attempt of an asynchronous update check, and the next attempt if it is rate limited.
+     */
+    private static void attempt(JavaPlugin plugin, String githubApiUrl, int attempt, int maxAttempts, long backoffMillis, long delayMillis, CompletableFuture<UpdateResult> result) {
+        executor.schedule(() -> {
+            try {
+                UpdateResult checked = check(plugin, githubApiUrl, false);
+                if (checked.getStatus() == UpdateResult.Status.RATE_LIMITED && attempt < maxAttempts) {
+                    long delay = Math.min(Math.max(backoffMillis, checked.getRetryAfterMillis()), MAX_BACKOFF_MILLIS);
+                    logWarning("[%s] Rate limited, retrying the update check in %d seconds.", plugin.getDescription().getName(), TimeUnit.MILLISECONDS.toSeconds(delay));
+                    attempt(plugin, githubApiUrl, attempt + 1, maxAttempts, Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS), delay, result);
+                } else {
+                    result.complete(checked);
+                }
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Performs a single update check without logging its result.
+     * <p>
+     * Uses the cached release tag if it is still fresh, and otherwise sends a conditional request and updates the
+     * cache from the response. With keep-alive, the response body is read to its end and the connection is left to
+     * the JDK's connection cache, so that further requests to the same host reuse it; otherwise the response is closed
+     * as soon as the release tag is read and the connection is dropped.
+     *
+     * @param plugin       the plugin being checked
+     * @param githubApiUrl the GitHub API URL to query for the latest release information
+     * @param keepAlive    {@code true} to keep the connection open for reuse
+     * @return the result of the check
+     */
+    static UpdateResult check(JavaPlugin plugin, String githubApiUrl, boolean keepAlive) {
+        if (!MetricsUtil.isEnabled()) {
+            return checkRelease(plugin, githubApiUrl, keepAlive);
+        }
+
+        long start = System.nanoTime();
+        try {
+            return checkRelease(plugin, githubApiUrl, keepAlive);
+        } finally {
+            MetricsUtil.UPDATE_CHECK.record(start);
+        }
+    }
+
+    /**
+     * Performs an update check as described by {@link #check(JavaPlugin, String, boolean)}, without recording metrics.
+     */
+    private static UpdateResult checkRelease(JavaPlugin plugin, String githubApiUrl, boolean keepAlive) {
+        PluginDescriptionFile pdf = plugin.getDescription();
+        String currentVersion = "v" + pdf.getVersion();
+        String downloadLink = githubApiUrl.replace("api.github.com/repos", "github.com");
+        UpdateCache cache = UpdateCache.load(plugin.getDataFolder(), githubApiUrl);
+        if (cache.isFresh(cacheTtlMillis)) {
+            return new UpdateResult(status(currentVersion, cache.tagName), currentVersion, cache.tagName, downloadLink, 0, 0, null, true);
+        }
+
         HttpURLConnection connection = null;
         try {
             URI uri = new URI(githubApiUrl);
             URL url = uri.toURL();
             connection = (HttpURLConnection) url.openConnection();
             connection.setRequestMethod("GET");
+            connection.setConnectTimeout(connectTimeoutMillis);
+            connection.setReadTimeout(readTimeoutMillis);
+            if (cache.tagName != null && cache.etag != null) {
+                connection.setRequestProperty("If-None-Match", cache.etag);
+            }
+            if (cache.tagName != null && cache.lastModified != null) {
+                connection.setRequestProperty("If-Modified-Since", cache.lastModified);
+            }
 
             int responseCode = connection.getResponseCode();
-            if (responseCode != 200) {
-                handleResponseError(plugin.getDescription().getName(), responseCode);
-                return;
+            if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED && cache.tagName != null) {
+                cache.checkedAt = System.currentTimeMillis();
+                saveCache(pdf.getName(), cache);
+                return new UpdateResult(status(currentVersion, cache.tagName), currentVersion, cache.tagName, downloadLink, responseCode, 0, null, true);
+            } else if (responseCode == 403 || responseCode == 429) {
+                if (keepAlive) {
+                    discard(connection.getErrorStream());
+                }
+                return new UpdateResult(UpdateResult.Status.RATE_LIMITED, currentVersion, null, downloadLink, responseCode, getRetryAfterMillis(connection), null, false);
+            } else if (responseCode != 200) {
+                if (keepAlive) {
+                    discard(responseCode < 400 ? connection.getInputStream() : connection.getErrorStream());
+                }
+                return new UpdateResult(UpdateResult.Status.FAILED, currentVersion, null, downloadLink, responseCode, 0, null, false);
             }
 
-            BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-            StringBuilder content = new StringBuilder();
-            String inputLine;
-            while ((inputLine = in.readLine()) != null) {
-                content.append(inputLine);
+            String latestVersion = getLatestVersion(connection, keepAlive);
+            if (latestVersion != null) {
+                cache.etag = connection.getHeaderField("ETag");
+                cache.lastModified = connection.getHeaderField("Last-Modified");
+                cache.tagName = latestVersion;
+                cache.checkedAt = System.currentTimeMillis();
+                saveCache(pdf.getName(), cache);
             }
-            in.close();
-
-            String responseBody = content.toString();
-            String latestVersion = getLatestVersion(responseBody);
-            String formattedCurrentVersion = "v" + pdf.getVersion();
-            compareVersions(pdf.getName(), formattedCurrentVersion, latestVersion, githubApiUrl);
-        } catch (IOException | URISyntaxException e) {
-            logger.severe(String.format("[%s] Exception occurred while checking for a new version: %s", pdf.getName(), e.getMessage()));
+            return new UpdateResult(status(currentVersion, latestVersion), currentVersion, latestVersion, downloadLink, responseCode, 0, null, false);
+        } catch (IOException | URISyntaxException | IllegalArgumentException e) {
+            return new UpdateResult(UpdateResult.Status.FAILED, currentVersion, null, downloadLink, 0, 0, String.valueOf(e.getMessage()), false);
         } finally {
-            if (connection != null) {
+            if (connection != null && !keepAlive) {
                 connection.disconnect();
             }
         }
     }
 
+    /**
+     * Determines the status of a check from the current and latest versions.
+     */
+    private static UpdateResult.Status status(String currentVersion, String latestVersion) {
+        if (latestVersion == null) {
+            return UpdateResult.Status.FAILED;
+        }
+        return SemanticVersion.compare(currentVersion, latestVersion) < 0 ? UpdateResult.Status.UPDATE_AVAILABLE : UpdateResult.Status.UP_TO_DATE;
+    }
+
+    /**
+     * Saves the update check cache, logging a warning if it cannot be written.
+     */
+    private static void saveCache(String pluginName, UpdateCache cache) {
+        try {
+            cache.save();
+        } catch (IOException e) {
+            logWarning("[%s] Could not save the update check cache: %s", pluginName, e.getMessage());
+        }
+    }
+
+    /**
+     * Returns how long a rate-limited response asks to wait, from its {@code Retry-After} or
+     * {@code X-RateLimit-Reset} header.
+     *
+     * @param connection the connection that received the response
+     * @return the wait time in milliseconds, or {@code 0} if the response does not say
+     */
+    private static long getRetryAfterMillis(HttpURLConnection connection) {
+        try {
+            String retryAfter = connection.getHeaderField("Retry-After");
+            if (retryAfter != null) {
+                return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+            }
+
+            String reset = connection.getHeaderField("X-RateLimit-Reset");
+            if (reset != null) {
+                return Math.max(0, TimeUnit.SECONDS.toMillis(Long.parseLong(reset.trim())) - System.currentTimeMillis());
+            }
+        } catch (NumberFormatException ignored) {
+            // Fall back to the default backoff.
+        }
+        return 0;
+    }
+
+    /**
+     * Logs the result of an update check.
+     *
+     * @param pluginName the name of the plugin
+     * @param result     the result of the check
+     */
+    private static void logResult(String pluginName, UpdateResult result) {
+        if (result.getError() != null) {
+            logSevere("[%s] Exception occurred while checking for a new version: %s", pluginName, result.getError());
+        } else if (!result.isCached() && result.getResponseCode() != 200) {
+            handleResponseError(pluginName, result.getResponseCode());
+        } else {
+            compareVersions(pluginName, result.getCurrentVersion(), result.getLatestVersion(), result.getDownloadLink());
+        }
+    }
+
+    /**
+     * Creates the executor running asynchronous update checks on a single daemon thread, which exits while idle.
+     */
+    private static ScheduledThreadPoolExecutor createExecutor() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "UpdateUtil-Check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setKeepAliveTime(30, TimeUnit.SECONDS);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     /**
      * Handles response errors when querying the GitHub API for the latest release version.
      * <p>
@@ -85,60 +363,82 @@ public class UpdateUtil {
      */
     private static void handleResponseError(String pluginName, int responseCode) {
         if (responseCode == 403 || responseCode == 429) {
-            logger.warning(String.format("[%s] Rate limited, can't check for a new plugin version. This should resolve itself within an hour.", pluginName));
+            logWarning("[%s] Rate limited, can't check for a new plugin version. This should resolve itself within an hour.", pluginName);
         } else {
-            logger.warning(String.format("[%s] Unexpected response code: %s. Unable to check for a new plugin version.", pluginName, responseCode));
+            logWarning("[%s] Unexpected response code: %s. Unable to check for a new plugin version.", pluginName, responseCode);
         }
     }
 
     /**
      * Extracts the latest version from the GitHub API response.
      * <p>
-     * This method searches for the {@code tag_name} field in the JSON response and extracts the associated version
-     * string. If the version cannot be found, it returns {@code null}.
+     * This method streams the JSON response through {@link ReleaseParser} and stops reading as soon as the
+     * {@code tag_name} field has been found, closing the response without reading the rest of the release, such as its
+     * changelog and asset list. If the version cannot be found, it returns {@code null}.
+     * <p>
+     * With keep-alive, the rest of the response is read and discarded instead, because the JDK only reuses a
+     * connection whose response has been read to its end.
      *
-     * @param responseBody the JSON response from the GitHub API
+     * @param connection the connection that received the JSON response from the GitHub API
+     * @param keepAlive  {@code true} to read the response to its end
      * @return the latest version string, or {@code null} if it cannot be determined
+     * @throws IOException if the response cannot be read
      */
-    private static String getLatestVersion(String responseBody) {
-        String tagNameField = "\"tag_name\":\"";
-        int tagIndex = responseBody.indexOf(tagNameField);
-        if (tagIndex == -1) {
-            return null;
+    private static String getLatestVersion(HttpURLConnection connection, boolean keepAlive) throws IOException {
+        InputStream stream = connection.getInputStream();
+        try (Reader in = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+            String latestVersion = ReleaseParser.readTagName(in);
+            if (keepAlive) {
+                discard(stream);
+            }
+            return latestVersion;
         }
+    }
 
-        int startIndex = tagIndex + tagNameField.length();
-        int endIndex = responseBody.indexOf("\"", startIndex);
-        if (endIndex == -1) {
-            return null;
+    /**
+     * Reads a response stream to its end and closes it, so that its connection can be reused.
+     *
+     * @param stream the response stream, or {@code null} if there is none
+     * @throws IOException if the stream cannot be read
+     */
+    private static void discard(InputStream stream) throws IOException {
+        if (stream == null) {
+            return;
+        }
+        try (InputStream in = stream) {
+            byte[] buffer = new byte[4096];
+            while (in.read(buffer) >= 0) {
+                // Discard the rest of the response.
+            }
         }
-
-        return responseBody.substring(startIndex, endIndex);
     }
 
     /**
      * Compares the current plugin version with the latest version and logs the result.
      * <p>
-     * If a newer version is available, this method logs a message indicating that the plugin is outdated and provides
-     * a download link. If the plugin is up to date, it logs a message confirming this.
+     * The versions are compared by {@link SemanticVersion} precedence. If a newer version is available, this method logs
+     * a message indicating that the plugin is outdated and provides a download link. If the plugin is up to date, it
+     * logs a message confirming this, and if it is newer than the latest release, it logs that it is ahead of it.
      *
      * @param pluginName    the name of the plugin
      * @param pluginVersion the current version of the plugin, formatted with a 'v' prefix
      * @param latestVersion the latest version retrieved from the GitHub API
-     * @param githubApiUrl  the GitHub API URL used to check for the latest version
+     * @param downloadLink  the link to the repository's releases, derived from the GitHub API URL
      */
-    private static void compareVersions(String pluginName, String pluginVersion, String latestVersion, String githubApiUrl) {
+    private static void compareVersions(String pluginName, String pluginVersion, String latestVersion, String downloadLink) {
         if (latestVersion == null) {
-            logger.warning(String.format("[%s] Could not determine the latest version.", pluginName));
+            logWarning("[%s] Could not determine the latest version.", pluginName);
             return;
         }
 
-        if (!pluginVersion.equalsIgnoreCase(latestVersion)) {
-            String downloadLink = githubApiUrl.replace("api.github.com/repos", "github.com");
-            logger.info(String.format("[%s] New stable %s available. You are running an outdated or experimental %s.", pluginName, latestVersion, pluginVersion));
-            logger.info(String.format("[%s] Download the latest stable version from: %s", pluginName, downloadLink));
+        int comparison = SemanticVersion.compare(pluginVersion, latestVersion);
+        if (comparison < 0) {
+            logInfo("[%s] New stable %s available. You are running an outdated or experimental %s.", pluginName, latestVersion, pluginVersion);
+            logInfo("[%s] Download the latest stable version from: %s", pluginName, downloadLink);
+        } else if (comparison > 0) {
+            logInfo("[%s] You are running %s, which is newer than the latest stable %s.", pluginName, pluginVersion, latestVersion);
         } else {
-            logger.info(String.format("[%s] You are running the latest version.", pluginName));
+            logInfo("[%s] You are running the latest version.", pluginName);
         }
     }
 }
@@ -0,0 +1,365 @@
+package org.example.simulation;
+
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.example.testing.TestServer;
+import org.example.util.AboutUtil;
+import org.example.util.AccessUtil;
+import org.example.util.ColorUtil;
+import org.example.util.LatencyHistogram;
+import org.example.util.LoggerUtil;
+import org.example.util.MetricsUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless load simulation of the plugin's command and event paths with many players online.
+ * <p>
+ * Stand-in players from {@link TestServer} are driven through a simulated main loop, as fast as it can run. Every
+ * tick, a number of random players run the about command, which checks a permission through {@link AccessUtil} and
+ * sends plugin details through {@link AboutUtil}; chat, which is colored through {@link ColorUtil} and sent to a
+ * number of random recipients; and reconnects, which refresh cached permissions. Every command and chat line is also
+ * written to the plugin's log through {@link LoggerUtil}, and tasks scheduled by the utilities run as part of the tick.
+ * <p>
+ * After the warm-up ticks, the time of every tick and every command and chat line is recorded. The report shows the
+ * tick time percentiles against the 50 ms budget of a server tick, the allocation rate of the main loop, and the tail
+ * latencies of both paths. Everything runs offline in the given data folder.
+ * <p>
+ * <b>Note:</b> Run by {@link LoadSimulationTest}, which checks the tick times against {@link Options#getMaxP99Millis()}
+ * if a limit is set.
+ */
+final class LoadSimulation {
+
+    private static final String ABOUT_PERMISSION = "example.about";
+    private static final long TICK_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final String[] RANKS = {"&7Guest", "&aMember", "&bBuilder", "&6Moderator", "&cAdmin"};
+    private static final String[] MESSAGES = {
+            "hello everyone",
+            "&ais anyone selling &eiron&a?",
+            "brb",
+            "meet at spawn in five minutes, bring torches and food for the trip",
+            "&c&lwarning&r&7: creeper near the farm"
+    };
+
+    private final Options options;
+    private final File dataFolder;
+    private final Random random;
+    private final LatencyHistogram tickTimes = MetricsUtil.histogram("simulation.tick");
+    private final LatencyHistogram commandTimes = MetricsUtil.histogram("simulation.command");
+    private final LatencyHistogram chatTimes = MetricsUtil.histogram("simulation.chat");
+
+    private JavaPlugin plugin;
+    private Player[] players;
+
+    LoadSimulation(Options options, File dataFolder) {
+        this.options = options;
+        this.dataFolder = dataFolder;
+        this.random = new Random(options.seed);
+    }
+
+    /**
+     * Runs the simulation.
+     *
+     * @return the report, one line per measurement
+     * @throws IOException if the log file cannot be created in the data folder
+     */
+    List<String> run() throws IOException {
+        setUp();
+        try {
+            return simulate();
+        } finally {
+            LoggerUtil.closeLog();
+            AccessUtil.disablePermissionCache();
+            MetricsUtil.disableMetrics();
+        }
+    }
+
+    /**
+     * Returns the tick times recorded after the warm-up ticks.
+     *
+     * @return the tick time histogram
+     */
+    LatencyHistogram getTickTimes() {
+        return tickTimes;
+    }
+
+    /**
+     * Returns the latencies of the about command recorded after the warm-up ticks.
+     *
+     * @return the command latency histogram
+     */
+    LatencyHistogram getCommandTimes() {
+        return commandTimes;
+    }
+
+    /**
+     * Returns the latencies of chat lines recorded after the warm-up ticks.
+     *
+     * @return the chat latency histogram
+     */
+    LatencyHistogram getChatTimes() {
+        return chatTimes;
+    }
+
+    private List<String> simulate() {
+        com.sun.management.ThreadMXBean threads = allocationCounter();
+        long threadId = Thread.currentThread().getId();
+        long messagesBefore = 0;
+        long allocatedBefore = 0;
+        long startNanos = 0;
+
+        for (int tick = 0; tick < options.warmupTicks + options.ticks; tick++) {
+            if (tick == options.warmupTicks) {
+                MetricsUtil.resetMetrics();
+                messagesBefore = TestServer.getMessagesSent();
+                allocatedBefore = threads != null ? threads.getThreadAllocatedBytes(threadId) : 0;
+                startNanos = System.nanoTime();
+            }
+
+            long tickStart = System.nanoTime();
+            runTick();
+            tickTimes.record(tickStart);
+        }
+
+        long elapsedNanos = System.nanoTime() - startNanos;
+        long allocated = threads != null ? threads.getThreadAllocatedBytes(threadId) - allocatedBefore : -1;
+        long messages = TestServer.getMessagesSent() - messagesBefore;
+        return report(elapsedNanos, allocated, messages);
+    }
+
+    private void setUp() throws IOException {
+        plugin = TestServer.plugin(dataFolder);
+        new LoggerUtil(plugin, "simulation.log").initializeLog();
+
+        players = new Player[options.players];
+        for (int i = 0; i < players.length; i++) {
+            boolean allowed = random.nextInt(10) < 8;
+            players[i] = TestServer.player("Player" + i, i % 100 == 0, allowed ? new String[]{ABOUT_PERMISSION} : new String[0]);
+        }
+        TestServer.setOnlinePlayers(players);
+
+        if (options.permissionCache) {
+            AccessUtil.enablePermissionCache(plugin, Math.max(1000, options.players * 4), TimeUnit.MINUTES.toMillis(5));
+        }
+        if (options.metrics) {
+            MetricsUtil.enableMetrics();
+        }
+    }
+
+    private void runTick() {
+        TestServer.runTick();
+
+        for (int i = 0; i < options.commandsPerTick; i++) {
+            Player player = randomPlayer();
+            long start = System.nanoTime();
+            if (AccessUtil.hasPermission(player, ABOUT_PERMISSION, "&cYou do not have permission to use this command.")) {
+                AboutUtil.about(player, plugin);
+            }
+            LoggerUtil.writeToLog(player.getName() + " issued server command: /about", true);
+            commandTimes.record(start);
+        }
+
+        for (int i = 0; i < options.chatPerTick; i++) {
+            Player sender = randomPlayer();
+            long start = System.nanoTime();
+            String rank = RANKS[random.nextInt(RANKS.length)];
+            String message = MESSAGES[random.nextInt(MESSAGES.length)];
+            String line = ColorUtil.translate("&8[" + rank + "&8] &f" + sender.getName() + "&7: " + message);
+            for (int j = 0; j < options.recipients; j++) {
+                randomPlayer().sendMessage(line);
+            }
+            LoggerUtil.writeToLog(ColorUtil.strip(line), true);
+            chatTimes.record(start);
+        }
+
+        for (int i = 0; i < options.reconnectsPerTick; i++) {
+            AccessUtil.refreshPermissions(randomPlayer());
+        }
+    }
+
+    private Player randomPlayer() {
+        return players[random.nextInt(players.length)];
+    }
+
+    private List<String> report(long elapsedNanos, long allocatedBytes, long messages) {
+        double seconds = elapsedNanos / 1e9;
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format(Locale.ROOT, "Load simulation: %d players, %d ticks after %d warm-up ticks, permission cache %s",
+                options.players, options.ticks, options.warmupTicks, options.permissionCache ? "on" : "off"));
+        lines.add(String.format(Locale.ROOT, "Workload per tick: %d commands, %d chat lines to %d recipients, %d reconnects",
+                options.commandsPerTick, options.chatPerTick, options.recipients, options.reconnectsPerTick));
+        lines.add(String.format(Locale.ROOT, "Tick time: avg=%s p50=%s p95=%s p99=%s p99.9=%s max=%s",
+                millis(tickTimes.getAverageNanos()), millis(tickTimes.getPercentileNanos(50)), millis(tickTimes.getPercentileNanos(95)),
+                millis(tickTimes.getPercentileNanos(99)), millis(tickTimes.getPercentileNanos(99.9)), millis(tickTimes.getMaxNanos())));
+        lines.add(String.format(Locale.ROOT, "Tick budget: %.1f%% of the 50 ms budget used on average",
+                100.0 * tickTimes.getAverageNanos() / TICK_BUDGET_NANOS));
+        lines.add(String.format(Locale.ROOT, "Command latency: p50=%s p99=%s p99.9=%s max=%s",
+                millis(commandTimes.getPercentileNanos(50)), millis(commandTimes.getPercentileNanos(99)),
+                millis(commandTimes.getPercentileNanos(99.9)), millis(commandTimes.getMaxNanos())));
+        lines.add(String.format(Locale.ROOT, "Chat latency: p50=%s p99=%s p99.9=%s max=%s",
+                millis(chatTimes.getPercentileNanos(50)), millis(chatTimes.getPercentileNanos(99)),
+                millis(chatTimes.getPercentileNanos(99.9)), millis(chatTimes.getMaxNanos())));
+        if (allocatedBytes >= 0) {
+            lines.add(String.format(Locale.ROOT, "Allocation: %.1f MB/s, %.1f KB per tick",
+                    allocatedBytes / seconds / (1024 * 1024), allocatedBytes / 1024.0 / options.ticks));
+        } else {
+            lines.add("Allocation: not supported by this JVM");
+        }
+        lines.add(String.format(Locale.ROOT, "Messages sent: %d (%.0f per second of simulation)", messages, messages / seconds));
+
+        if (options.metrics) {
+            lines.add("Utility metrics:");
+            for (String line : MetricsUtil.report()) {
+                if (!line.startsWith("simulation.")) {
+                    lines.add("  " + line);
+                }
+            }
+        }
+        return lines;
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3fms", nanos / 1e6);
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threads;
+            if (counter.isThreadAllocatedMemorySupported()) {
+                counter.setThreadAllocatedMemoryEnabled(true);
+                return counter;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The workload of a simulation.
+     * <p>
+     * Options are given as {@code --name=value}, separated by whitespace: {@code players}, {@code ticks},
+     * {@code warmup}, {@code commands}, {@code chat}, {@code recipients} and {@code reconnects} set the workload,
+     * {@code cache} enables the permission cache, {@code metrics} enables {@link MetricsUtil} instrumentation and adds
+     * its report, {@code seed} fixes the random choices, and {@code max-p99-ms} sets the 99th percentile tick time
+     * that the test allows. The defaults are small enough to run as part of every build, and set no tick time limit,
+     * since wall-clock times on a shared build machine are too noisy to fail a build on.
+     */
+    static final class Options {
+
+        private int players = 200;
+        private int ticks = 200;
+        private int warmupTicks = 50;
+        private int commandsPerTick = 10;
+        private int chatPerTick = 20;
+        private int recipients = 20;
+        private int reconnectsPerTick = 1;
+        private boolean permissionCache;
+        private boolean metrics;
+        private long seed = 42;
+        private long maxP99Millis = -1;
+
+        /**
+         * Parses the options, starting from the defaults.
+         *
+         * @param text the options separated by whitespace; may be empty
+         * @return the options
+         */
+        static Options parse(String text) {
+            Options options = new Options();
+            for (String arg : text.trim().split("\\s+")) {
+                if (arg.isEmpty()) {
+                    continue;
+                }
+                if (!arg.startsWith("--")) {
+                    throw new IllegalArgumentException("Unknown argument: " + arg);
+                }
+
+                int separator = arg.indexOf('=');
+                String name = separator > 0 ? arg.substring(2, separator) : arg.substring(2);
+                String value = separator > 0 ? arg.substring(separator + 1) : "true";
+                switch (name) {
+                    case "players":
+                        options.players = Math.max(1, Integer.parseInt(value));
+                        break;
+                    case "ticks":
+                        options.ticks = Math.max(1, Integer.parseInt(value));
+                        break;
+                    case "warmup":
+                        options.warmupTicks = Math.max(0, Integer.parseInt(value));
+                        break;
+                    case "commands":
+                        options.commandsPerTick = Math.max(0, Integer.parseInt(value));
+                        break;
+                    case "chat":
+                        options.chatPerTick = Math.max(0, Integer.parseInt(value));
+                        break;
+                    case "recipients":
+                        options.recipients = Math.max(0, Integer.parseInt(value));
+                        break;
+                    case "reconnects":
+                        options.reconnectsPerTick = Math.max(0, Integer.parseInt(value));
+                        break;
+                    case "cache":
+                        options.permissionCache = Boolean.parseBoolean(value);
+                        break;
+                    case "metrics":
+                        options.metrics = Boolean.parseBoolean(value);
+                        break;
+                    case "seed":
+                        options.seed = Long.parseLong(value);
+                        break;
+                    case "max-p99-ms":
+                        options.maxP99Millis = Long.parseLong(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown argument: " + arg);
+                }
+            }
+            return options;
+        }
+
+        /**
+         * Returns the number of measured ticks, excluding warm-up ticks.
+         *
+         * @return the number of ticks
+         */
+        int getTicks() {
+            return ticks;
+        }
+
+        /**
+         * Returns the number of about commands run per tick.
+         *
+         * @return the number of commands
+         */
+        int getCommandsPerTick() {
+            return commandsPerTick;
+        }
+
+        /**
+         * Returns the number of chat lines sent per tick.
+         *
+         * @return the number of chat lines
+         */
+        int getChatPerTick() {
+            return chatPerTick;
+        }
+
+        /**
+         * Returns the 99th percentile tick time that the test allows.
+         *
+         * @return the limit in milliseconds, or {@code -1} if the tick times are not checked
+         */
+        long getMaxP99Millis() {
+            return maxP99Millis;
+        }
+    }
+}
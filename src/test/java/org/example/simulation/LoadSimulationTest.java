@@ -0,0 +1,64 @@
+package org.example.simulation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the {@link LoadSimulation} as part of the test phase.
+ * <p>
+ * The workload can be changed with the {@code simulation.args} system property, which the build sets from the
+ * {@code simulationArgs} project property, e.g. {@code ./gradlew test -PsimulationArgs="--players=5000 --cache"}. The
+ * report is printed and, if the {@code simulation.report} system property is set, written to that file. The tick times
+ * are only checked when a limit is passed with {@code --max-p99-ms}.
+ */
+class LoadSimulationTest {
+
+    @TempDir
+    File dataFolder;
+
+    @Test
+    void simulationCompletesWorkload() throws IOException {
+        LoadSimulation.Options options = LoadSimulation.Options.parse(System.getProperty("simulation.args", ""));
+        LoadSimulation simulation = new LoadSimulation(options, dataFolder);
+
+        List<String> report = simulation.run();
+        report.forEach(System.out::println);
+        writeReport(report);
+
+        assertEquals((long) options.getTicks() * options.getCommandsPerTick(), simulation.getCommandTimes().getCount(),
+                "Commands run");
+        assertEquals((long) options.getTicks() * options.getChatPerTick(), simulation.getChatTimes().getCount(),
+                "Chat lines sent");
+
+        if (options.getMaxP99Millis() < 0) {
+            return;
+        }
+        long p99Nanos = simulation.getTickTimes().getPercentileNanos(99);
+        assertTrue(p99Nanos <= TimeUnit.MILLISECONDS.toNanos(options.getMaxP99Millis()),
+                () -> String.format("The 99th percentile tick time of %.3f ms exceeds %d ms.", p99Nanos / 1e6, options.getMaxP99Millis()));
+    }
+
+    private static void writeReport(List<String> report) throws IOException {
+        String path = System.getProperty("simulation.report");
+        if (path == null) {
+            return;
+        }
+
+        File file = new File(path);
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Could not create " + parent);
+        }
+        Files.write(file.toPath(), report, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,305 @@
+package org.example.testing;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Stand-ins for the Bukkit server, players and plugins used by the tests, the load simulation and the benchmarks.
+ * <p>
+ * The server, players and console are dynamic proxies, so everything runs without a CraftBukkit server. Methods
+ * without an explicit answer return {@code null}, {@code 0} or {@code false}. The server's logger discards everything,
+ * so logging does not distort the measurements with console output, and messages sent to players are only counted.
+ * <p>
+ * Synchronous tasks scheduled through the server's scheduler run when {@link #runTick()} is called, which stands in for
+ * the server's main loop. Asynchronous tasks are treated the same way.
+ */
+public final class TestServer {
+
+    private static final Logger SILENT_LOGGER = createSilentLogger();
+    private static final LongAdder messagesSent = new LongAdder();
+    private static final SimulatedScheduler scheduler = new SimulatedScheduler();
+    private static volatile Player[] onlinePlayers = new Player[0];
+
+    private TestServer() {
+    }
+
+    /**
+     * Installs the stand-in server as the Bukkit server, unless one is installed already.
+     *
+     * @return the installed server
+     */
+    public static synchronized Server install() {
+        if (Bukkit.getServer() == null) {
+            Bukkit.setServer(proxy(Server.class, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getLogger":
+                        return SILENT_LOGGER;
+                    case "getName":
+                        return "TestServer";
+                    case "getVersion":
+                        return "test";
+                    case "getOnlinePlayers":
+                        return onlinePlayers.clone();
+                    case "getPlayer":
+                        return findPlayer((String) args[0]);
+                    case "getScheduler":
+                        return proxy(method.getReturnType(), (inner, innerMethod, innerArgs) -> scheduler.invoke(innerMethod, innerArgs));
+                    case "getPluginManager":
+                        return proxy(method.getReturnType(), (inner, innerMethod, innerArgs) -> defaultValue(innerMethod));
+                    default:
+                        return defaultValue(method);
+                }
+            }));
+        }
+        return Bukkit.getServer();
+    }
+
+    /**
+     * Creates a player who has exactly the given permissions.
+     *
+     * @param name        the player's name
+     * @param op          whether the player is an operator
+     * @param permissions the permission nodes the player has
+     * @return the player
+     */
+    public static Player player(String name, boolean op, String... permissions) {
+        Set<String> granted = new HashSet<>(Arrays.asList(permissions));
+        return proxy(Player.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getName":
+                case "getDisplayName":
+                    return name;
+                case "isOp":
+                    return op;
+                case "isOnline":
+                    return true;
+                case "hasPermission":
+                    return args[0] instanceof String && granted.contains(args[0]);
+                case "sendMessage":
+                    messagesSent.increment();
+                    return null;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    return defaultValue(method);
+            }
+        });
+    }
+
+    /**
+     * Sets the players returned by the server as online.
+     *
+     * @param players the online players
+     */
+    public static void setOnlinePlayers(Player... players) {
+        onlinePlayers = players.clone();
+    }
+
+    /**
+     * Runs the scheduled tasks that are due in the current tick, then advances to the next tick.
+     *
+     * @return the number of tasks run
+     */
+    public static int runTick() {
+        return scheduler.runTick();
+    }
+
+    /**
+     * Returns the number of messages sent to stand-in players so far.
+     *
+     * @return the number of messages
+     */
+    public static long getMessagesSent() {
+        return messagesSent.sum();
+    }
+
+    /**
+     * Creates a command sender that is not a player, like the server console.
+     *
+     * @return the console sender
+     */
+    public static CommandSender console() {
+        return proxy(CommandSender.class, (proxy, method, args) -> method.getName().equals("isOp") ? Boolean.TRUE : defaultValue(method));
+    }
+
+    /**
+     * Creates a plugin whose data folder is the given directory.
+     *
+     * @param dataFolder the plugin's data folder
+     * @return the plugin
+     */
+    public static JavaPlugin plugin(File dataFolder) {
+        install();
+        return new TestPlugin(dataFolder);
+    }
+
+    private static Player findPlayer(String name) {
+        for (Player player : onlinePlayers) {
+            if (player.getName().equalsIgnoreCase(name)) {
+                return player;
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(TestServer.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object defaultValue(Method method) {
+        Class<?> type = method.getReturnType();
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == double.class) {
+            return 0.0;
+        }
+        if (type == float.class) {
+            return 0.0f;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        if (type == char.class) {
+            return '\0';
+        }
+        if (type == Set.class) {
+            return Collections.emptySet();
+        }
+        return null;
+    }
+
+    private static Logger createSilentLogger() {
+        Logger logger = Logger.getLogger("TestServer");
+        logger.setUseParentHandlers(false);
+        return logger;
+    }
+
+    /**
+     * Scheduler whose tasks run when the simulated main loop calls {@link #runTick()}.
+     */
+    private static final class SimulatedScheduler {
+
+        private final PriorityQueue<Task> queue = new PriorityQueue<>();
+        private final Set<Integer> cancelled = new HashSet<>();
+        private long currentTick;
+        private int nextId = 1;
+
+        private synchronized Object invoke(Method method, Object[] args) {
+            String name = method.getName();
+            if (name.startsWith("schedule")) {
+                Runnable task = (Runnable) args[1];
+                long delay = args.length > 2 ? Math.max(0, (Long) args[2]) : 0;
+                long period = args.length > 3 ? Math.max(1, (Long) args[3]) : -1;
+                int id = nextId++;
+                queue.add(new Task(id, task, currentTick + delay, period));
+                return id;
+            }
+            if (name.equals("cancelTask")) {
+                cancelled.add((Integer) args[0]);
+                return null;
+            }
+            if (name.equals("cancelTasks")) {
+                for (Task task : queue) {
+                    cancelled.add(task.id);
+                }
+                return null;
+            }
+            if (name.equals("isQueued")) {
+                int id = (Integer) args[0];
+                return !cancelled.contains(id) && queue.stream().anyMatch(task -> task.id == id);
+            }
+            return defaultValue(method);
+        }
+
+        private int runTick() {
+            List<Task> due = new ArrayList<>();
+            long tick;
+            synchronized (this) {
+                tick = currentTick++;
+                while (!queue.isEmpty() && queue.peek().dueTick <= tick) {
+                    due.add(queue.poll());
+                }
+            }
+
+            int run = 0;
+            for (Task task : due) {
+                synchronized (this) {
+                    if (cancelled.remove(task.id)) {
+                        continue;
+                    }
+                    if (task.period > 0) {
+                        queue.add(new Task(task.id, task.runnable, tick + task.period, task.period));
+                    }
+                }
+                task.runnable.run();
+                run++;
+            }
+            return run;
+        }
+    }
+
+    /**
+     * A task waiting in the simulated scheduler, ordered by the tick it is due in and then by the order it was added.
+     */
+    private static final class Task implements Comparable<Task> {
+
+        private final int id;
+        private final Runnable runnable;
+        private final long dueTick;
+        private final long period;
+
+        private Task(int id, Runnable runnable, long dueTick, long period) {
+            this.id = id;
+            this.runnable = runnable;
+            this.dueTick = dueTick;
+            this.period = period;
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            return dueTick != other.dueTick ? Long.compare(dueTick, other.dueTick) : Integer.compare(id, other.id);
+        }
+    }
+
+    /**
+     * A plugin initialized the way the plugin loader would, with the stand-in server.
+     */
+    private static final class TestPlugin extends JavaPlugin {
+
+        private TestPlugin(File dataFolder) {
+            initialize(null, Bukkit.getServer(), new PluginDescriptionFile("Test", "1.0.0", TestPlugin.class.getName()),
+                    dataFolder, new File(dataFolder, "Test.jar"), TestPlugin.class.getClassLoader());
+        }
+    }
+}
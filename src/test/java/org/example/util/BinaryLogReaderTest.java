@@ -0,0 +1,87 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Queries binary logs in which many records share a timestamp.
+ * <p>
+ * Records are written through {@link BinaryLogWriter} directly, with segments small enough that a run of equal
+ * timestamps spans several index entries and at least one segment boundary.
+ */
+class BinaryLogReaderTest {
+
+    private static final String BASE_NAME = "log";
+    private static final String TEXT = "A log entry that is long enough to fill the index interval quickly.";
+
+    @TempDir
+    File directory;
+
+    @Test
+    void equalTimestampsAcrossIndexEntriesAndSegmentsAreAllReturned() throws IOException {
+        BinaryLogWriter writer = new BinaryLogWriter(directory, BASE_NAME, "Test", 3 * BinaryLogWriter.INDEX_INTERVAL, 0);
+        write(writer, 999, 10);
+        write(writer, 1000, 200);
+        write(writer, 1001, 10);
+        writer.close();
+
+        assertTrue(BinaryLogReader.listSegments(directory, BASE_NAME).length > 1, "The log spans several segments");
+
+        BinaryLogReader reader = new BinaryLogReader(directory, BASE_NAME);
+        assertEquals(200, count(reader, 1000, 1000));
+        assertEquals(210, count(reader, 999, 1000));
+        assertEquals(210, count(reader, 1000, 1001));
+        assertEquals(10, count(reader, 1001, 1001));
+    }
+
+    @Test
+    void segmentsRolledOverWithinOneMillisecondAreAllReturned() throws IOException {
+        BinaryLogWriter writer = new BinaryLogWriter(directory, BASE_NAME, "Test", BinaryLogWriter.INDEX_INTERVAL, 0);
+        write(writer, 1000, 200);
+        writer.close();
+
+        // Every segment after the first is named after a later millisecond than the records it holds
+        assertTrue(BinaryLogReader.listSegments(directory, BASE_NAME).length > 2, "The log spans several segments");
+
+        BinaryLogReader reader = new BinaryLogReader(directory, BASE_NAME);
+        assertEquals(200, count(reader, 1000, 1000));
+        assertEquals(0, count(reader, 1001, 1001));
+        assertEquals(0, count(reader, 0, 999));
+    }
+
+    @Test
+    void entriesAreVisitedInWrittenOrder() throws IOException {
+        BinaryLogWriter writer = new BinaryLogWriter(directory, BASE_NAME, "Test", BinaryLogWriter.INDEX_INTERVAL, 0);
+        for (int i = 0; i < 200; i++) {
+            writer.append(new LogEntry(1000, Level.INFO, "Entry " + i, false));
+        }
+        writer.close();
+
+        List<String> texts = new ArrayList<>();
+        new BinaryLogReader(directory, BASE_NAME).query(1000, 1000, (timeMillis, text, logDateTime) -> texts.add(text));
+
+        assertEquals(200, texts.size());
+        for (int i = 0; i < texts.size(); i++) {
+            assertEquals("Entry " + i, texts.get(i));
+        }
+    }
+
+    private static void write(BinaryLogWriter writer, long timeMillis, int count) {
+        for (int i = 0; i < count; i++) {
+            writer.append(new LogEntry(timeMillis, Level.INFO, TEXT, true));
+        }
+    }
+
+    private static long count(BinaryLogReader reader, long fromMillis, long toMillis) throws IOException {
+        return reader.query(fromMillis, toMillis, (timeMillis, text, logDateTime) -> true);
+    }
+}
@@ -0,0 +1,170 @@
+package org.example.util;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.example.testing.TestServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs update checks against a local stub of the GitHub API.
+ * <p>
+ * The plugin under test is version {@code 1.0.0}, and the stub answers every request with the response set by the
+ * test through {@link #respond(Responder)}.
+ */
+class UpdateUtilTest {
+
+    private static final String PATH = "/repos/user/repo/releases/latest";
+    private static final String RELEASE = "{\"url\":\"x\",\"tag_name\":\"v1.2.0\",\"body\":\"Changelog\"}";
+    private static final String ETAG = "\"release-1\"";
+
+    @TempDir
+    File dataFolder;
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile Responder responder;
+    private HttpServer server;
+    private JavaPlugin plugin;
+    private String url;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext(PATH, exchange -> {
+            requests.incrementAndGet();
+            try {
+                responder.respond(exchange);
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+
+        plugin = TestServer.plugin(dataFolder);
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + PATH;
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+        UpdateUtil.setCacheTtl(TimeUnit.HOURS.toMillis(1));
+        UpdateUtil.setTimeouts(5000, 10000);
+    }
+
+    @Test
+    void okResponseReportsUpdateAndIsCached() {
+        respond(exchange -> {
+            exchange.getResponseHeaders().set("ETag", ETAG);
+            send(exchange, 200, RELEASE);
+        });
+
+        UpdateUtil.checkForUpdates(plugin, url);
+        assertEquals(1, requests.get());
+        assertTrue(new File(dataFolder, "update-cache.properties").isFile(), "Cache written");
+        assertFalse(new File(dataFolder, "update-cache.properties.tmp").exists(), "Temporary cache file left behind");
+
+        UpdateResult result = UpdateUtil.check(plugin, url, false);
+        assertEquals(1, requests.get(), "Requests while the cache is fresh");
+        assertEquals(UpdateResult.Status.UPDATE_AVAILABLE, result.getStatus());
+        assertEquals("v1.2.0", result.getLatestVersion());
+        assertTrue(result.isCached(), "Served from the cache");
+    }
+
+    @Test
+    void notModifiedResponseReusesCachedRelease() {
+        UpdateUtil.setCacheTtl(0);
+        respond(exchange -> {
+            exchange.getResponseHeaders().set("ETag", ETAG);
+            send(exchange, 200, RELEASE);
+        });
+        assertEquals(200, UpdateUtil.check(plugin, url, false).getResponseCode());
+
+        respond(exchange -> {
+            if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+            } else {
+                send(exchange, 200, RELEASE);
+            }
+        });
+        UpdateResult result = UpdateUtil.check(plugin, url, false);
+
+        assertEquals(2, requests.get());
+        assertEquals(304, result.getResponseCode());
+        assertEquals(UpdateResult.Status.UPDATE_AVAILABLE, result.getStatus());
+        assertEquals("v1.2.0", result.getLatestVersion());
+        assertTrue(result.isCached(), "Served from the cache");
+    }
+
+    @Test
+    void forbiddenResponseIsRateLimitedWithRetryAfter() {
+        respond(exchange -> {
+            exchange.getResponseHeaders().set("Retry-After", "120");
+            send(exchange, 403, "{\"message\":\"API rate limit exceeded\"}");
+        });
+
+        UpdateResult result = UpdateUtil.check(plugin, url, false);
+
+        assertEquals(UpdateResult.Status.RATE_LIMITED, result.getStatus());
+        assertEquals(403, result.getResponseCode());
+        assertEquals(TimeUnit.SECONDS.toMillis(120), result.getRetryAfterMillis());
+        assertFalse(new File(dataFolder, "update-cache.properties").exists(), "Cache written");
+    }
+
+    @Test
+    void slowResponseFailsAfterReadTimeout() {
+        UpdateUtil.setTimeouts(1000, 200);
+        respond(exchange -> {
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        long start = System.nanoTime();
+        UpdateResult result = UpdateUtil.check(plugin, url, false);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(UpdateResult.Status.FAILED, result.getStatus());
+        assertNotNull(result.getError());
+        assertTrue(elapsedMillis < 800, () -> "The check took " + elapsedMillis + " ms.");
+    }
+
+    private void respond(Responder responder) {
+        this.responder = responder;
+    }
+
+    private static void send(HttpExchange exchange, int code, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Writes the stub's response to a request.
+     */
+    private interface Responder {
+
+        void respond(HttpExchange exchange) throws IOException;
+    }
+}